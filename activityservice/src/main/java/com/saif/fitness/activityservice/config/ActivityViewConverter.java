@@ -0,0 +1,17 @@
+package com.saif.fitness.activityservice.config;
+
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/** Binds ?view= in any case (view=summary as well as SUMMARY), on both web stacks. */
+@Component
+public class ActivityViewConverter implements Converter<String, ActivityView> {
+
+    @Override
+    public ActivityView convert(String source) {
+        return ActivityView.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
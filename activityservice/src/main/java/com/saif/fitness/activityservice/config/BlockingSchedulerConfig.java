@@ -0,0 +1,45 @@
+package com.saif.fitness.activityservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Where reactive pipelines run their blocking steps (Mongo writes after a
+ * user validation, the export writer on the reactive stack).
+ *
+ * Usage in activity-service.yml:
+ * <pre>
+ * spring.threads.virtual.enabled: true   # ACTIVITY_VIRTUAL_THREADS
+ * </pre>
+ *
+ * Design decisions:
+ *  - With virtual threads on, every blocking step gets its own virtual thread,
+ *    as Tomcat requests and @Scheduled jobs do in that mode, so a slow Mongo
+ *    holds no platform thread and there is no pool size to tune.
+ *  - Otherwise Reactor's shared boundedElastic, as before (10 threads per core,
+ *    then queued).
+ */
+@Configuration
+public class BlockingSchedulerConfig {
+
+    @Bean(name = "blockingScheduler", destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler virtualThreadScheduler() {
+        return Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("activity-blocking-", 0).factory()),
+                "activity-blocking");
+    }
+
+    /** Shared with the rest of the JVM: not disposed with the context. */
+    @Bean(name = "blockingScheduler", destroyMethod = "")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler boundedElasticScheduler() {
+        return Schedulers.boundedElastic();
+    }
+}
@@ -40,6 +40,10 @@ public class KafkaProducerConfig {
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 30000);
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        // send() itself blocks this long without broker metadata; keep it well inside the outbox lease
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
+        // the outbox relay sends each batch back to back: let it leave as one produce request
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
 
         // SASL/SSL — only when credentials present (Render production)
         if (!saslUsername.isBlank()) {
@@ -3,9 +3,13 @@ package com.saif.fitness.activityservice.config;
 import com.mongodb.ConnectionString;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Configuration
 @EnableMongoAuditing
@@ -19,7 +23,7 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
      * bypassing Spring's property resolution chain (which would otherwise pick up
      * an empty/unresolved value forwarded by the config server on Railway).
      */
-    private String resolveUri() {
+    static String resolveUri() {
         String uri = System.getenv("MONGO_ACTIVITY_URI");
         return (uri != null && !uri.isBlank()) ? uri : DEFAULT_URI;
     }
@@ -31,6 +35,10 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
 
     @Override
     protected String getDatabaseName() {
+        return resolveDatabaseName();
+    }
+
+    static String resolveDatabaseName() {
         try {
             String uri = System.getenv("MONGO_ACTIVITY_URI");
             if (uri != null && !uri.isBlank()) {
@@ -45,4 +53,19 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     protected boolean autoIndexCreation() {
         return true;
     }
+
+    /**
+     * Activities and their outbox events are written in one transaction.
+     * Needs a replica set (Atlas always is); a standalone local mongod must be
+     * started as a single-node replica set.
+     */
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    @Bean
+    public TransactionTemplate transactionTemplate(MongoTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
 }
@@ -0,0 +1,60 @@
+package com.saif.fitness.activityservice.config;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.saif.fitness.activityservice.repository.ActivityRepository;
+import com.saif.fitness.activityservice.repository.ReactiveActivityRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Reactive Mongo for the WebFlux variant (spring.main.web-application-type=reactive).
+ *
+ * Design decisions:
+ *  - Same MONGO_ACTIVITY_URI and database as {@link MongoConfig}, and its
+ *    mapping converter, so both templates read and write identical documents.
+ *    The blocking client stays for the outbox relay, rollup rebuild and export,
+ *    which run on their own threads.
+ *  - Boot's reactive Mongo auto-configuration is excluded (application.yaml):
+ *    it would open a second, unconfigured client to localhost on the servlet
+ *    stack too.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableReactiveMongoAuditing
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveActivityRepository.class)
+// declaring reactive repositories turns Boot's blocking repository auto-configuration off
+@EnableMongoRepositories(basePackageClasses = ActivityRepository.class)
+public class ReactiveMongoConfig {
+
+    @Bean
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(MongoConfig.resolveUri());
+    }
+
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(MongoClient reactiveMongoClient) {
+        return new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, MongoConfig.resolveDatabaseName());
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                       MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, mappingMongoConverter);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory) {
+        return TransactionalOperator.create(new ReactiveMongoTransactionManager(reactiveMongoDatabaseFactory));
+    }
+}
@@ -0,0 +1,115 @@
+package com.saif.fitness.activityservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Finds where virtual threads get pinned to their carrier thread (blocking
+ * inside synchronized or a native frame), which silently turns a virtual
+ * thread back into a platform one and caps concurrency at the carrier count.
+ *
+ * Usage in activity-service.yml:
+ * <pre>
+ * activity:
+ *   virtual-threads:
+ *     pinning-monitor:
+ *       enabled: true
+ *       threshold: PT0.02S
+ * </pre>
+ *
+ * Design decisions:
+ *  - Streams the JDK's own jdk.VirtualThreadPinned JFR event in-process, so no
+ *    agent or JVM flag is needed; JFR drops pins shorter than threshold.
+ *  - A pin is charged to its hotspot: the first frame outside java.*, jdk.* and
+ *    sun.*, i.e. our code or the library that blocks while holding a monitor.
+ *    Timer activity.virtual-threads.pinned{frame=Class.method}; the tag values
+ *    are bounded by the code base, not by traffic.
+ *  - Each hotspot's stack is logged once at WARN; later pins only count.
+ *  - Only while virtual threads are on.
+ *
+ * The same check offline, e.g. on a load test:
+ * -XX:StartFlightRecording=filename=pins.jfr, then
+ * jfr print --events jdk.VirtualThreadPinned pins.jfr
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "activity.virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 20;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private final RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${activity.virtual-threads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String hotspot = hotspot(frames);
+
+        Timer.builder("activity.virtual-threads.pinned")
+                .description("Virtual threads blocked while pinned to their carrier, by first non-JDK frame")
+                .tag("frame", hotspot)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (reported.add(hotspot)) {
+            log.warn("Virtual thread pinned for {}ms at {}:\n{}",
+                    event.getDuration().toMillis(), hotspot, describe(event.getStackTrace()));
+        }
+    }
+
+    private static String hotspot(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + '.' + frame.getMethod().getName())
+                .filter(method -> !method.startsWith("java.") && !method.startsWith("jdk.") && !method.startsWith("sun."))
+                .findFirst()
+                .orElse("jdk");
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + '.' + frame.getMethod().getName()
+                        + ':' + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    public void close() {
+        recording.close();
+    }
+}
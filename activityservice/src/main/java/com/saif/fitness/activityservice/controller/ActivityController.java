@@ -1,42 +1,160 @@
 package com.saif.fitness.activityservice.controller;
 
+import com.saif.fitness.activityservice.dto.ActivityBatchResponse;
 import com.saif.fitness.activityservice.dto.ActivityRequest;
 import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import com.saif.fitness.activityservice.service.ActivityExportService;
 import com.saif.fitness.activityservice.service.ActivityService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/activities")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class ActivityController {
 
     private final ActivityService activityService;
+    private final ActivityExportService activityExportService;
+
+    @Value("${activity.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${activity.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${activity.rollups.max-summary-days:1100}")
+    private int maxSummaryDays;
+
+    @Value("${activity.export.timeout:PT10M}")
+    private Duration exportTimeout;
 
     @PostMapping("/track")
-    public ResponseEntity<ActivityResponse> trackActivity(@RequestBody ActivityRequest activityRequest){
-        return ResponseEntity.ok(activityService.trackActivity(activityRequest));
+    public Mono<ResponseEntity<ActivityResponse>> trackActivity(
+            @RequestBody ActivityRequest activityRequest,
+            @RequestHeader(value = "X-User-ID", required = false) String gatewayUserId
+    ){
+        return activityService.trackActivity(activityRequest, gatewayUserId)
+                .map(ResponseEntity::ok);
     }
 
+    @PostMapping("/track/batch")
+    public Mono<ResponseEntity<ActivityBatchResponse>> trackActivities(
+            @RequestBody List<ActivityRequest> activityRequests,
+            @RequestHeader(value = "X-User-ID", required = false) String gatewayUserId
+    ){
+        if (activityRequests.isEmpty() || activityRequests.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return activityService.trackActivities(activityRequests, gatewayUserId)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Without page: keyset pagination, {"content":[...],"nextCursor":"..."};
+     * follow nextCursor as ?cursor= until it is absent. With page: the older
+     * offset paging and plain list body, same order.
+     * view=summary returns slim items without the metrics map; includeMetrics
+     * adds it back, or (=false) drops it from the full view.
+     */
     @GetMapping
-    public ResponseEntity<List<ActivityResponse>> getActivities(
-            @RequestParam int page,
-            @RequestParam int size,
-            @RequestParam String userId
+    public ResponseEntity<?> getActivities(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "FULL") ActivityView view,
+            @RequestParam(required = false) Boolean includeMetrics
     ) {
-        return ResponseEntity.ok(
-                activityService.getActivities(page, size, userId)
-        );
+        if (page != null) {
+            return ResponseEntity.ok(
+                    activityService.getActivities(page, size, userId, view, view.includeMetrics(includeMetrics))
+            );
+        }
+        if (size < 1 || size > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(activityService.getActivityFeed(userId, cursor, size, view, view.includeMetrics(includeMetrics)));
+    }
+
+    /**
+     * GET /api/activities/summary?userId=...&from=2026-10-01&to=2026-10-31&granularity=WEEK
+     * Totals per day, week or month and per activity type, read from the rollups.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ActivitySummaryResponse> getSummary(
+            @RequestParam String userId,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity
+    ) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) > maxSummaryDays) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(activityService.getSummary(userId, from, to, granularity));
+    }
+
+    /**
+     * GET /api/activities/export?userId=...[&format=csv]
+     * The user's whole history in one streamed response: NDJSON by default, one
+     * activity per line, as GET /api/activities returns them. Written on an async
+     * request with its own activity.export.timeout; other async endpoints keep the
+     * default one.
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+        response.setContentType((csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("activities-" + userId + (csv ? ".csv" : ".ndjson"))
+                .build()
+                .toString());
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            if (csv) {
+                activityExportService.writeCsv(userId, response.getOutputStream());
+            } else {
+                activityExportService.writeNdjson(userId, response.getOutputStream());
+            }
+            return null;
+        });
     }
 
+    /** Body is the cached JSON as is (see ActivityResponseCache), hence the explicit content type. */
     @GetMapping("/{activityId}")
-    public ResponseEntity<ActivityResponse> getActivityById(
+    public ResponseEntity<byte[]> getActivityById(
             @PathVariable String activityId
     ) {
-        return ResponseEntity.ok(activityService.getActivityById(activityId));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(activityService.getActivityById(activityId));
     }
 
 
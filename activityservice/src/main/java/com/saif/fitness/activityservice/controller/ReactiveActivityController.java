@@ -0,0 +1,153 @@
+package com.saif.fitness.activityservice.controller;
+
+import com.saif.fitness.activityservice.dto.ActivityBatchResponse;
+import com.saif.fitness.activityservice.dto.ActivityRequest;
+import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import com.saif.fitness.activityservice.service.ActivityExportService;
+import com.saif.fitness.activityservice.service.ReactiveActivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * {@link ActivityController} on WebFlux, active with
+ * spring.main.web-application-type=reactive. Same paths, parameters and bodies.
+ */
+@RestController
+@RequestMapping("/api/activities")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveActivityController {
+
+    private final ReactiveActivityService activityService;
+    private final ActivityExportService activityExportService;
+    private final Scheduler blockingScheduler;
+
+    @Value("${activity.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${activity.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${activity.rollups.max-summary-days:1100}")
+    private int maxSummaryDays;
+
+    @PostMapping("/track")
+    public Mono<ResponseEntity<ActivityResponse>> trackActivity(
+            @RequestBody ActivityRequest activityRequest,
+            @RequestHeader(value = "X-User-ID", required = false) String gatewayUserId
+    ){
+        return activityService.trackActivity(activityRequest, gatewayUserId)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/track/batch")
+    public Mono<ResponseEntity<ActivityBatchResponse>> trackActivities(
+            @RequestBody List<ActivityRequest> activityRequests,
+            @RequestHeader(value = "X-User-ID", required = false) String gatewayUserId
+    ){
+        if (activityRequests.isEmpty() || activityRequests.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return activityService.trackActivities(activityRequests, gatewayUserId)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getActivities(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "FULL") ActivityView view,
+            @RequestParam(required = false) Boolean includeMetrics
+    ) {
+        if (page != null) {
+            return activityService.getActivities(page, size, userId, view, view.includeMetrics(includeMetrics))
+                    .map(ResponseEntity::ok);
+        }
+        if (size < 1 || size > maxPageSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return activityService.getActivityFeed(userId, cursor, size, view, view.includeMetrics(includeMetrics))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<ActivitySummaryResponse>> getSummary(
+            @RequestParam String userId,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity
+    ) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) > maxSummaryDays) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return activityService.getSummary(userId, from, to, granularity)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Same writer as the servlet stack: it runs on the blocking scheduler and
+     * its output is relayed as data buffers, one export per thread. Exports are
+     * rare, and this keeps NDJSON and CSV byte-identical on both stacks.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> export(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                if (csv) {
+                    activityExportService.writeCsv(userId, out);
+                } else {
+                    activityExportService.writeNdjson(userId, out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, blockingScheduler::schedule));
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("activities-" + userId + (csv ? ".csv" : ".ndjson"))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/{activityId}")
+    public Mono<ResponseEntity<byte[]>> getActivityById(
+            @PathVariable String activityId
+    ) {
+        return activityService.getActivityById(activityId)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json));
+    }
+}
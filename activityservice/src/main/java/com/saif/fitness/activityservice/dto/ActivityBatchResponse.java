@@ -0,0 +1,14 @@
+package com.saif.fitness.activityservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ActivityBatchResponse {
+    private int accepted;
+    private int rejected;
+    private List<ActivityBatchResult> results;
+}
@@ -0,0 +1,16 @@
+package com.saif.fitness.activityservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/** Outcome of one item of a batch, at the same index as in the request. */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ActivityBatchResult {
+    private int index;
+    private int status;
+    private ActivityResponse activity;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.saif.fitness.activityservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a user's activities; pass nextCursor back as ?cursor= for the
+ * next one. Items are ActivityResponse or, with ?view=summary, ActivityListItem.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ActivityFeedResponse<T> {
+    private List<T> content;
+    /** Absent on the last page. */
+    private String nextCursor;
+}
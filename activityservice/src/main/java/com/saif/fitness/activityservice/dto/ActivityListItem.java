@@ -0,0 +1,22 @@
+package com.saif.fitness.activityservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** One activity in a ?view=summary list; additionalMetrics only with includeMetrics=true. */
+@Data
+@Builder
+public class ActivityListItem {
+    private String id;
+    private ActivityType activityType;
+    private Integer duration;
+    private Integer caloriesBurned;
+    private LocalDateTime startTime;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> additionalMetrics;
+}
@@ -0,0 +1,17 @@
+package com.saif.fitness.activityservice.dto;
+
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/** One day, week or month of a summary; buckets without activities are left out. */
+@Data
+@Builder
+public class ActivitySummaryBucket {
+    private LocalDate start;
+    private ActivityTotals totals;
+    private Map<ActivityType, ActivityTotals> byType;
+}
@@ -0,0 +1,19 @@
+package com.saif.fitness.activityservice.dto;
+
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class ActivitySummaryResponse {
+    private String userId;
+    private RollupGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private ActivityTotals totals;
+    private List<ActivitySummaryBucket> buckets;
+}
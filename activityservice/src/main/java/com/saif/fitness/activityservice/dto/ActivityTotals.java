@@ -0,0 +1,20 @@
+package com.saif.fitness.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTotals {
+    private long count;
+    private long totalDuration;
+    private long totalCalories;
+
+    public void add(long count, long totalDuration, long totalCalories) {
+        this.count += count;
+        this.totalDuration += totalDuration;
+        this.totalCalories += totalCalories;
+    }
+}
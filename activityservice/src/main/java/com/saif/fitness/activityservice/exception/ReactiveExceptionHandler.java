@@ -0,0 +1,44 @@
+package com.saif.fitness.activityservice.exception;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+
+/** {@link GlobalExceptionHandler} for the WebFlux variant: same statuses and {@link ApiError} bodies. */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ApiError> handleUserNotFound(UserNotFoundException e, ServerHttpRequest request){
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error(HttpStatus.NOT_FOUND, e, request));
+    }
+
+    @ExceptionHandler(UserValidationUnavailableException.class)
+    public ResponseEntity<ApiError> handleUserValidationUnavailable(UserValidationUnavailableException e, ServerHttpRequest request){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error(HttpStatus.SERVICE_UNAVAILABLE, e, request));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> handleInvalidCursor(InvalidCursorException e, ServerHttpRequest request){
+        return ResponseEntity.badRequest().body(error(HttpStatus.BAD_REQUEST, e, request));
+    }
+
+    private static ApiError error(HttpStatus status, Exception e, ServerHttpRequest request) {
+        return ApiError.builder()
+                .status(status.value())
+                .error(status.name())
+                .message(e.getMessage())
+                .path(request.getPath().value())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
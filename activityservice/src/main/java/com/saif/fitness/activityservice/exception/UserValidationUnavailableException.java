@@ -0,0 +1,7 @@
+package com.saif.fitness.activityservice.exception;
+
+public class UserValidationUnavailableException extends RuntimeException {
+    public UserValidationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
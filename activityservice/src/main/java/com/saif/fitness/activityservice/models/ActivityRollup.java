@@ -0,0 +1,44 @@
+package com.saif.fitness.activityservice.models;
+
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Totals of one user's activities of one type within one day, week or month.
+ * Maintained by {@code ActivityRollupService} with $inc upserts as activities
+ * are stored, and recomputed from the raw activities by {@code ActivityRollupRebuildJob}.
+ */
+@Document(collection = "activity_rollups")
+@CompoundIndex(name = "user_buckets", def = "{'userId': 1, 'granularity': 1, 'bucketStart': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityRollup {
+    /** userId|granularity|bucketStart|activityType, so concurrent upserts of a bucket meet on one document. */
+    @Id
+    private String id;
+    private String userId;
+    private RollupGranularity granularity;
+    /** First day of the bucket as yyyy-MM-dd: sorts and compares as text, no time zone to get wrong. */
+    private String bucketStart;
+    private ActivityType activityType;
+    private long count;
+    private long totalDuration;
+    private long totalCalories;
+    /** Last $inc or rebuild; a rebuild deletes buckets it did not touch that are older than its start. */
+    private Instant lastUpdated;
+
+    public static String idOf(String userId, RollupGranularity granularity, String bucketStart, ActivityType activityType) {
+        return userId + '|' + granularity + '|' + bucketStart + '|' + activityType;
+    }
+}
@@ -0,0 +1,51 @@
+package com.saif.fitness.activityservice.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An activity-events message waiting to be published, written in the same
+ * transaction as its activity and deleted by {@code OutboxRelay} once Kafka
+ * has acknowledged it.
+ */
+@Document(collection = "activity_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    private String id;
+    private String activityId;
+    /** Kafka record key: the user id, so a user's events stay in order on one partition. */
+    private String key;
+    private Activity payload;
+
+    @Indexed
+    private Instant createdAt;
+
+    /** Due for (re)delivery from this time on; pushed forward while a relay holds it and after failures. */
+    @Indexed
+    private Instant nextAttemptAt;
+    private String claimedBy;
+    private int attempts;
+    private String lastError;
+
+    public static OutboxEvent of(Activity activity) {
+        Instant now = Instant.now();
+        return OutboxEvent.builder()
+                .activityId(activity.getId())
+                .key(activity.getUserId())
+                .payload(activity)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.saif.fitness.activityservice.models.enums;
+
+/**
+ * How much of each activity the list endpoints return (?view=).
+ * FULL is ActivityResponse, every field; SUMMARY is ActivityListItem, what a
+ * list row shows. ?includeMetrics= decides whether the metrics map is read at
+ * all; unset, it follows the view.
+ */
+public enum ActivityView {
+    FULL(true),
+    SUMMARY(false);
+
+    private final boolean metricsByDefault;
+
+    ActivityView(boolean metricsByDefault) {
+        this.metricsByDefault = metricsByDefault;
+    }
+
+    public boolean includeMetrics(Boolean requested) {
+        return requested != null ? requested : metricsByDefault;
+    }
+}
@@ -0,0 +1,40 @@
+package com.saif.fitness.activityservice.models.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/** Bucket sizes of the activity rollups. Weeks start on Monday (ISO). */
+public enum RollupGranularity {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    /** Unit name for Mongo's $dateTrunc. */
+    private final String unit;
+
+    RollupGranularity(String unit) {
+        this.unit = unit;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    /** First day of the bucket containing the date. */
+    public LocalDate bucketOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucket) {
+        return switch (this) {
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.saif.fitness.activityservice.repository;
+
+import com.saif.fitness.activityservice.exception.InvalidCursorException;
+import com.saif.fitness.activityservice.models.Activity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's activity feed: the (startTime, id) of the last activity
+ * returned. Handed to clients as an opaque token; they only ever echo it back.
+ */
+public record ActivityCursor(LocalDateTime startTime, String id) {
+
+    public static ActivityCursor after(Activity activity) {
+        return new ActivityCursor(activity.getStartTime(), activity.getId());
+    }
+
+    public String encode() {
+        String raw = (startTime == null ? "" : startTime.toString()) + '|' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws InvalidCursorException if the token was not produced by {@link #encode()} */
+    public static ActivityCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String startTime = raw.substring(0, separator);
+            String id = raw.substring(separator + 1);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("no id");
+            }
+            return new ActivityCursor(startTime.isEmpty() ? null : LocalDateTime.parse(startTime), id);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.saif.fitness.activityservice.repository;
+
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface ActivityRepositoryCustom {
+
+    /**
+     * A user's activities, newest startTime first, starting right after the
+     * cursor (from the top when it is null). No count is run: hasNext comes
+     * from reading one extra document. Only the fields the view needs are read.
+     */
+    Slice<Activity> findByUserIdAfter(String userId, ActivityCursor cursor, int size,
+                                      ActivityView view, boolean includeMetrics);
+
+    /** Offset paging, kept for ?page= callers; a Slice, so no count query. */
+    Slice<Activity> findByUserId(String userId, Pageable pageable, ActivityView view, boolean includeMetrics);
+}
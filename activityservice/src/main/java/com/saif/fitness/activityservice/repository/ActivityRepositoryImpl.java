@@ -0,0 +1,94 @@
+package com.saif.fitness.activityservice.repository;
+
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over the user_feed index {userId, startTime: -1, _id: -1}.
+ *
+ * Design decisions:
+ *  - The cursor is the last (startTime, _id) returned, and the next page is
+ *    "strictly after it" in index order, so every page is one index seek plus
+ *    size + 1 keys, however deep. Offset paging skipped (and counted) every
+ *    earlier activity on every call.
+ *  - Each branch of the $or carries userId, so Mongo can answer it from the
+ *    index and merge the branches in sort order instead of filtering the
+ *    user's whole range.
+ *  - Activities without a startTime sort last (null is lowest), ordered by _id.
+ *  - Lists read only what their view shows (Mongo field projection). The
+ *    metrics map is most of a document's bytes, so leaving it out is what
+ *    shrinks both the reply from Mongo and the decode into Activity.
+ */
+@RequiredArgsConstructor
+public class ActivityRepositoryImpl implements ActivityRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Slice<Activity> findByUserIdAfter(String userId, ActivityCursor cursor, int size,
+                                             ActivityView view, boolean includeMetrics) {
+        Query query = project(feedQuery(userId, cursor, size), view, includeMetrics);
+        return toSlice(mongoTemplate.find(query, Activity.class), size);
+    }
+
+    @Override
+    public Slice<Activity> findByUserId(String userId, Pageable pageable, ActivityView view, boolean includeMetrics) {
+        Query query = project(pageQuery(userId, pageable), view, includeMetrics);
+        return toSlice(mongoTemplate.find(query, Activity.class), pageable.getPageSize());
+    }
+
+    /** The next size + 1 activities after the cursor; {@link #toSlice} turns them into a page. */
+    public static Query feedQuery(String userId, ActivityCursor cursor, int size) {
+        return Query.query(cursor == null ? Criteria.where("userId").is(userId) : after(userId, cursor))
+                .with(ActivityRepository.FEED_ORDER)
+                .limit(size + 1);
+    }
+
+    /** The page's activities plus one, in the pageable's order; {@link #toSlice} turns them into a page. */
+    public static Query pageQuery(String userId, Pageable pageable) {
+        return Query.query(Criteria.where("userId").is(userId))
+                .with(pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+    }
+
+    /** SUMMARY reads the ActivityListItem fields; without metrics, either view skips the metrics map. */
+    public static Query project(Query query, ActivityView view, boolean includeMetrics) {
+        if (view == ActivityView.SUMMARY) {
+            query.fields().include("activityType", "duration", "caloriesBurned", "startTime");
+            if (includeMetrics) {
+                query.fields().include("additionalMetrics");
+            }
+        } else if (!includeMetrics) {
+            query.fields().exclude("additionalMetrics");
+        }
+        return query;
+    }
+
+    public static Slice<Activity> toSlice(List<Activity> activities, int size) {
+        boolean hasNext = activities.size() > size;
+        return new SliceImpl<>(hasNext ? activities.subList(0, size) : activities, PageRequest.ofSize(size), hasNext);
+    }
+
+    private static Criteria after(String userId, ActivityCursor cursor) {
+        Object id = ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+        if (cursor.startTime() == null) {
+            return Criteria.where("userId").is(userId).and("startTime").is(null).and("_id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where("userId").is(userId).and("startTime").lt(cursor.startTime()),
+                Criteria.where("userId").is(userId).and("startTime").is(cursor.startTime()).and("_id").lt(id),
+                Criteria.where("userId").is(userId).and("startTime").is(null));
+    }
+}
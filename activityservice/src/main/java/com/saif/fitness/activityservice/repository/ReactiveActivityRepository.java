@@ -0,0 +1,8 @@
+package com.saif.fitness.activityservice.repository;
+
+import com.saif.fitness.activityservice.models.Activity;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/** {@link ActivityRepository} for the WebFlux variant. */
+public interface ReactiveActivityRepository extends ReactiveMongoRepository<Activity, String> {
+}
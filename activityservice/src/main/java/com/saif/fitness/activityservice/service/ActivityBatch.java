@@ -0,0 +1,87 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.dto.ActivityBatchResponse;
+import com.saif.fitness.activityservice.dto.ActivityBatchResult;
+import com.saif.fitness.activityservice.dto.ActivityRequest;
+import com.saif.fitness.activityservice.models.Activity;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One batch ingest, shared by the servlet and reactive services: items
+ * rejected up front, the activities to store and, once the write is done,
+ * the per-item response.
+ */
+final class ActivityBatch {
+
+    private final ActivityBatchResult[] results;
+    private final List<Activity> activities = new ArrayList<>();
+    private final List<Integer> positions = new ArrayList<>();
+
+    private ActivityBatch(int size) {
+        this.results = new ActivityBatchResult[size];
+    }
+
+    static ActivityBatch of(List<ActivityRequest> requests, Map<String, Boolean> validUsers) {
+        ActivityBatch batch = new ActivityBatch(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ActivityRequest request = requests.get(i);
+            if (request.getUserId() == null || request.getActivityType() == null) {
+                batch.results[i] = rejected(i, HttpStatus.BAD_REQUEST, "userId and activityType are required");
+            } else if (!validUsers.getOrDefault(request.getUserId(), false)) {
+                batch.results[i] = rejected(i, HttpStatus.NOT_FOUND, "User not exists with id: "+request.getUserId());
+            } else {
+                // Bulk inserts do not write generated ids back, so assign them here. With an id
+                // set, auditing treats the entity as existing and skips @CreatedDate.
+                Activity activity = ActivityService.toActivity(request);
+                activity.setId(new ObjectId().toHexString());
+                activity.setCreatedAt(now);
+                activity.setUpdatedAt(now);
+                batch.activities.add(activity);
+                batch.positions.add(i);
+            }
+        }
+        return batch;
+    }
+
+    /** The valid items, to be stored all or none. */
+    List<Activity> activities() {
+        return activities;
+    }
+
+    ActivityBatchResponse complete(boolean stored) {
+        for (int j = 0; j < activities.size(); j++) {
+            int i = positions.get(j);
+            results[i] = stored
+                    ? ActivityBatchResult.builder()
+                        .index(i)
+                        .status(HttpStatus.CREATED.value())
+                        .activity(ActivityService.toResponse(activities.get(j)))
+                        .build()
+                    : rejected(i, HttpStatus.INTERNAL_SERVER_ERROR, "Could not store activity, please retry");
+        }
+
+        int accepted = stored ? activities.size() : 0;
+        return ActivityBatchResponse.builder()
+                .accepted(accepted)
+                .rejected(results.length - accepted)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private static ActivityBatchResult rejected(int index, HttpStatus status, String error) {
+        return ActivityBatchResult.builder()
+                .index(index)
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.repository.ActivityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's whole activity history, newest first, as NDJSON (one
+ * {@link ActivityResponse} per line, the shape GET /api/activities returns and
+ * /api/recommendations/backfill accepts) or CSV.
+ *
+ * Design decisions:
+ *  - Reads through one server-side cursor fetching batch-size documents per
+ *    round trip, on the user_feed index; each activity is written and dropped
+ *    before the next is read, so memory stays flat however long the history.
+ *  - Output is flushed once per cursor batch, so the client sees progress
+ *    without a flush per line.
+ */
+@Service
+public class ActivityExportService {
+
+    private static final String[] CSV_COLUMNS = {"id", "userId", "activityType", "duration", "caloriesBurned",
+            "startTime", "createdAt", "updatedAt", "additionalMetrics"};
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ActivityExportService(
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            @Value("${activity.export.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public void writeNdjson(String userId, OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(ActivityResponse.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+        try (Stream<Activity> activities = stream(userId);
+             JsonGenerator generator = writer.createGenerator(out)) {
+            int written = 0;
+            for (Iterator<Activity> it = activities.iterator(); it.hasNext(); ) {
+                writer.writeValue(generator, ActivityService.toResponse(it.next()));
+                generator.writeRaw('\n');
+                if (++written % batchSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    public void writeCsv(String userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Activity> activities = stream(userId)) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+            int written = 0;
+            for (Iterator<Activity> it = activities.iterator(); it.hasNext(); ) {
+                Activity activity = it.next();
+                writeCsvRow(writer,
+                        activity.getId(),
+                        activity.getUserId(),
+                        activity.getActivityType(),
+                        activity.getDuration(),
+                        activity.getCaloriesBurned(),
+                        activity.getStartTime(),
+                        activity.getCreatedAt(),
+                        activity.getUpdatedAt(),
+                        activity.getAdditionalMetrics() == null
+                                ? null
+                                : objectMapper.writeValueAsString(activity.getAdditionalMetrics()));
+                if (++written % batchSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private Stream<Activity> stream(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId))
+                .with(ActivityRepository.FEED_ORDER)
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Activity.class);
+    }
+
+    /** RFC 4180: quote a value only when it holds a comma, quote or line break. */
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            writer.write(value);
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,103 @@
+package com.saif.fitness.activityservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.models.Activity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.time.Duration;
+
+/**
+ * GET /api/activities/{id} responses, kept as the JSON bytes sent to the
+ * client: a hit costs neither a Mongo read nor serialization. Activities do
+ * not change after ingest, and AI-SERVICE and the apps re-read the same ids.
+ *
+ * Usage in activity-service.yml:
+ * <pre>
+ * activity:
+ *   by-id-cache:
+ *     max-size: 16MB
+ *     ttl: PT10M
+ * </pre>
+ *
+ * Design decisions:
+ *  - Bounded by the bytes held (max-size), not by entry count; entries expire
+ *    ttl after they were loaded.
+ *  - Read-through by hand (getIfPresent, then put after the Mongo read) rather
+ *    than Caffeine's compute: that would hold a map lock across Mongo I/O and
+ *    pin a virtual thread. Two concurrent misses for one id both read it once.
+ *  - Invalidated from Mongo's lifecycle events: any save or delete of an
+ *    Activity through the repositories or either template evicts it. Updates by
+ *    query publish no such event; a path that updates activities that way must
+ *    call {@link #evict(String)}.
+ *  - Hit/miss/eviction stats are published as "cache.*" meters, name=activity-by-id.
+ */
+@Component
+public class ActivityResponseCache extends AbstractMongoEventListener<Activity> {
+
+    private final Cache<String, byte[]> responses;
+    private final ObjectWriter writer;
+
+    public ActivityResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${activity.by-id-cache.max-size:16MB}") DataSize maxSize,
+            @Value("${activity.by-id-cache.ttl:PT10M}") Duration ttl) {
+        this.writer = objectMapper.writerFor(ActivityResponse.class);
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, byte[]>weigher((activityId, json) -> activityId.length() + json.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "activity-by-id");
+    }
+
+    /** The cached JSON, or null on a miss. */
+    public byte[] get(String activityId) {
+        return responses.getIfPresent(activityId);
+    }
+
+    /** Serializes the response once, caches it and returns the bytes to send. */
+    public byte[] put(ActivityResponse response) {
+        byte[] json = writer.writeValueAsBytes(response);
+        responses.put(response.getId(), json);
+        return json;
+    }
+
+    public void evict(String activityId) {
+        responses.invalidate(activityId);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Activity> event) {
+        if (event.getSource().getId() != null) {
+            evict(event.getSource().getId());
+        }
+    }
+
+    /** The event carries the delete's query: a single id evicts that entry, anything wider clears the cache. */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Activity> event) {
+        Object id = event.getDocument() == null ? null : event.getDocument().get("_id");
+        if (id instanceof String activityId) {
+            evict(activityId);
+        } else if (id instanceof ObjectId objectId) {
+            evict(objectId.toHexString());
+        } else {
+            responses.invalidateAll();
+        }
+    }
+}
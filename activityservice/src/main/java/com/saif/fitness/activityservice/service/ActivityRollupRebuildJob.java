@@ -0,0 +1,156 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.ActivityRollup;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes activity_rollups from the raw activities, for the first deploy,
+ * after a backfill or to repair drift.
+ *
+ * Usage in activity-service.yml:
+ * <pre>
+ * activity:
+ *   rollups:
+ *     rebuild-cron: "0 30 3 * * *"   # default "-": never on a schedule
+ *     rebuild-if-empty: true         # on startup, when there are activities but no rollups
+ * </pre>
+ *
+ * Design decisions:
+ *  - One aggregation per granularity, run in parallel, grouped server side
+ *    ($dateTrunc in the service's time zone, as {@link ActivityRollupService}
+ *    buckets) and written with $merge, so no activity crosses the wire.
+ *  - $merge replaces each bucket and stamps lastUpdated with the run's start,
+ *    taken from the service's clock like the $inc upserts' (not Mongo's $$NOW,
+ *    which may lag it); buckets neither rebuilt nor incremented since the start
+ *    (their activities are gone) are deleted afterwards.
+ *  - Activities stored while a rebuild runs may be counted twice or not at all
+ *    in their bucket; schedule it for a quiet hour or run it again.
+ */
+@Component
+public class ActivityRollupRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityRollupRebuildJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean rebuildIfEmpty;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ActivityRollupRebuildJob(
+            MongoTemplate mongoTemplate,
+            @Value("${activity.rollups.rebuild-if-empty:true}") boolean rebuildIfEmpty) {
+        this.mongoTemplate = mongoTemplate;
+        this.rebuildIfEmpty = rebuildIfEmpty;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!rebuildIfEmpty) {
+            return;
+        }
+        // off the startup thread: neither a slow rebuild nor an unreachable Mongo may hold up readiness
+        Thread.ofPlatform().name("rollup-rebuild").start(() -> {
+            try {
+                if (!mongoTemplate.exists(new Query(), ActivityRollup.class)
+                        && mongoTemplate.exists(new Query(), Activity.class)) {
+                    rebuild();
+                }
+            } catch (Exception e) {
+                log.warn("Could not check activity rollups: {}", e.toString());
+            }
+        });
+    }
+
+    @Scheduled(cron = "${activity.rollups.rebuild-cron:-}")
+    public void rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Rollup rebuild already running");
+            return;
+        }
+        // millisecond precision, as Mongo stores it: rebuilt buckets must not compare below it
+        Instant start = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(RollupGranularity.values().length)) {
+            CompletableFuture.allOf(Arrays.stream(RollupGranularity.values())
+                            .map(granularity -> CompletableFuture.runAsync(() -> aggregate(granularity, start), executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+
+            long removed = mongoTemplate.remove(
+                    Query.query(Criteria.where("lastUpdated").lt(start)), ActivityRollup.class).getDeletedCount();
+            log.info("Rebuilt activity rollups in {} ms, removed {} stale buckets",
+                    Duration.between(start, Instant.now()).toMillis(), removed);
+        } catch (Exception e) {
+            log.error("Rollup rebuild failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void aggregate(RollupGranularity granularity, Instant runStart) {
+        String timezone = ZoneId.systemDefault().getId();
+        Document day = new Document("$ifNull", List.of("$startTime", "$createdAt"));
+        Document bucket = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("timezone", timezone)
+                .append("date", new Document("$dateTrunc", new Document("date", day)
+                        .append("unit", granularity.unit())
+                        .append("startOfWeek", "monday")
+                        .append("timezone", timezone))));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("userId", new Document("$type", "string"))
+                        .append("activityType", new Document("$type", "string"))
+                        .append("$or", List.of(
+                                new Document("startTime", new Document("$type", "date")),
+                                new Document("createdAt", new Document("$type", "date"))))),
+                new Document("$group", new Document("_id", new Document("userId", "$userId")
+                        .append("bucketStart", bucket)
+                        .append("activityType", "$activityType"))
+                        .append("count", new Document("$sum", 1))
+                        .append("totalDuration", new Document("$sum", new Document("$ifNull", List.of("$duration", 0))))
+                        .append("totalCalories", new Document("$sum", new Document("$ifNull", List.of("$caloriesBurned", 0))))),
+                new Document("$project", new Document("_id", new Document("$concat", List.of(
+                        "$_id.userId", "|", granularity.name(), "|", "$_id.bucketStart", "|", "$_id.activityType")))
+                        .append("userId", "$_id.userId")
+                        .append("granularity", granularity.name())
+                        .append("bucketStart", "$_id.bucketStart")
+                        .append("activityType", "$_id.activityType")
+                        .append("count", 1)
+                        .append("totalDuration", 1)
+                        .append("totalCalories", 1)
+                        .append("lastUpdated", new Document("$literal", Date.from(runStart)))),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(ActivityRollup.class))
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert")));
+
+        Instant start = Instant.now();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Activity.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+        log.info("Rebuilt {} rollups in {} ms", granularity, Duration.between(start, Instant.now()).toMillis());
+    }
+}
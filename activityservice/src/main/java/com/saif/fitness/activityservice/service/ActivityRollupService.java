@@ -0,0 +1,143 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.dto.ActivitySummaryBucket;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
+import com.saif.fitness.activityservice.dto.ActivityTotals;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.ActivityRollup;
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user day/week/month totals by activity type, so a summary screen reads
+ * a handful of rollup documents instead of paging through raw activities.
+ *
+ * Design decisions:
+ *  - {@link #record} runs inside the ingest transaction: rollups move exactly
+ *    when the activities commit. Each (user, granularity, bucket, type) is one
+ *    document with a deterministic _id, updated by an $inc upsert; a batch is
+ *    first folded in memory and sent as one unordered bulk write.
+ *  - An activity is bucketed by its startTime (createdAt when it has none), in
+ *    the service's time zone, the same zone its LocalDateTimes are stored in.
+ *  - Reads are O(buckets x types) on the user_buckets index.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityRollupService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /** Adds the activities to their day, week and month rollups. Call within the transaction that stores them. */
+    public void record(Collection<Activity> activities) {
+        Map<String, Update> upserts = upserts(activities);
+        if (upserts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+        upserts.forEach((id, update) -> bulk.upsert(Query.query(Criteria.where("_id").is(id)), update));
+        bulk.execute();
+    }
+
+    /** Totals per bucket from the bucket containing from to the one containing to, both whole. */
+    public ActivitySummaryResponse getSummary(String userId, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        List<ActivityRollup> rollups = mongoTemplate.find(summaryQuery(userId, from, to, granularity), ActivityRollup.class);
+        return summarize(userId, from, to, granularity, rollups);
+    }
+
+    /** The $inc upsert of each rollup document the activities touch, keyed by its _id. */
+    static Map<String, Update> upserts(Collection<Activity> activities) {
+        Map<String, Increment> increments = new LinkedHashMap<>();
+        for (Activity activity : activities) {
+            LocalDate day = dayOf(activity);
+            if (day == null || activity.getUserId() == null || activity.getActivityType() == null) {
+                continue;
+            }
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                String bucketStart = granularity.bucketOf(day).toString();
+                String id = ActivityRollup.idOf(activity.getUserId(), granularity, bucketStart, activity.getActivityType());
+                increments.computeIfAbsent(id, key -> new Increment(
+                                activity.getUserId(), granularity, bucketStart, activity.getActivityType(), new ActivityTotals()))
+                        .totals()
+                        .add(1, valueOf(activity.getDuration()), valueOf(activity.getCaloriesBurned()));
+            }
+        }
+
+        Instant now = Instant.now();
+        Map<String, Update> upserts = new LinkedHashMap<>();
+        increments.forEach((id, increment) -> upserts.put(id, new Update()
+                .setOnInsert("userId", increment.userId())
+                .setOnInsert("granularity", increment.granularity())
+                .setOnInsert("bucketStart", increment.bucketStart())
+                .setOnInsert("activityType", increment.activityType())
+                .inc("count", increment.totals().getCount())
+                .inc("totalDuration", increment.totals().getTotalDuration())
+                .inc("totalCalories", increment.totals().getTotalCalories())
+                .set("lastUpdated", now)));
+        return upserts;
+    }
+
+    static Query summaryQuery(String userId, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        return Query.query(Criteria.where("userId").is(userId)
+                        .and("granularity").is(granularity)
+                        .and("bucketStart").gte(granularity.bucketOf(from).toString()).lte(granularity.bucketOf(to).toString()))
+                .with(Sort.by("bucketStart"));
+    }
+
+    static ActivitySummaryResponse summarize(String userId, LocalDate from, LocalDate to, RollupGranularity granularity,
+                                             List<ActivityRollup> rollups) {
+        ActivityTotals totals = new ActivityTotals();
+        Map<String, ActivitySummaryBucket> buckets = new TreeMap<>();
+        for (ActivityRollup rollup : rollups) {
+            ActivitySummaryBucket bucket = buckets.computeIfAbsent(rollup.getBucketStart(), start -> ActivitySummaryBucket.builder()
+                    .start(LocalDate.parse(start))
+                    .totals(new ActivityTotals())
+                    .byType(new EnumMap<>(ActivityType.class))
+                    .build());
+            bucket.getTotals().add(rollup.getCount(), rollup.getTotalDuration(), rollup.getTotalCalories());
+            bucket.getByType().put(rollup.getActivityType(),
+                    new ActivityTotals(rollup.getCount(), rollup.getTotalDuration(), rollup.getTotalCalories()));
+            totals.add(rollup.getCount(), rollup.getTotalDuration(), rollup.getTotalCalories());
+        }
+
+        return ActivitySummaryResponse.builder()
+                .userId(userId)
+                .granularity(granularity)
+                .from(granularity.bucketOf(from))
+                .to(granularity.next(granularity.bucketOf(to)).minusDays(1))
+                .totals(totals)
+                .buckets(List.copyOf(buckets.values()))
+                .build();
+    }
+
+    private static LocalDate dayOf(Activity activity) {
+        if (activity.getStartTime() != null) {
+            return activity.getStartTime().toLocalDate();
+        }
+        return activity.getCreatedAt() == null ? null : activity.getCreatedAt().toLocalDate();
+    }
+
+    private static long valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private record Increment(String userId, RollupGranularity granularity, String bucketStart,
+                             ActivityType activityType, ActivityTotals totals) {
+    }
+}
@@ -1,43 +1,170 @@
 package com.saif.fitness.activityservice.service;
 
+import com.saif.fitness.activityservice.dto.ActivityBatchResponse;
+import com.saif.fitness.activityservice.dto.ActivityFeedResponse;
+import com.saif.fitness.activityservice.dto.ActivityListItem;
 import com.saif.fitness.activityservice.dto.ActivityRequest;
 import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
 import com.saif.fitness.activityservice.exception.UserNotFoundException;
 import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.OutboxEvent;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import com.saif.fitness.activityservice.repository.ActivityCursor;
 import com.saif.fitness.activityservice.repository.ActivityRepository;
+import com.mongodb.MongoException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ActivityService {
 
     private static final Logger log = LoggerFactory.getLogger(ActivityService.class);
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
     private final ActivityRepository activityRepository;
+    private final MongoTemplate mongoTemplate;
     private final UserValidationService userValidationService;
-    private final KafkaTemplate<String, Activity> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityRollupService activityRollupService;
+    private final Scheduler blockingScheduler;
+    private final ActivityResponseCache activityResponseCache;
 
-    @Value("${kafka.topic.name}")
-    private String topicName;
-
-    public ActivityResponse trackActivity(ActivityRequest request) {
+    /**
+     * Validation is answered from cache (or trusted from the gateway's X-User-ID)
+     * on the common path; only a miss waits on USER-SERVICE, and that wait holds
+     * no servlet thread.
+     */
+    public Mono<ActivityResponse> trackActivity(ActivityRequest request, String gatewayUserId) {
 
         log.info("In ACTIVITY-SERVICE/ActivityService/trackActivity, request: {}",request);
 
-        boolean isValid=userValidationService.validateUser(request.getUserId());
+        return userValidationService.validateUser(request.getUserId(), gatewayUserId)
+                // a miss completes on a WebClient event-loop thread: keep the blocking save off it
+                .publishOn(blockingScheduler)
+                .map(isValid -> {
+                    if(!isValid){
+                        throw new UserNotFoundException("User not exists with id: "+request.getUserId());
+                    }
+                    return saveAndPublish(request);
+                });
+    }
+
+    /** The activity, its outbox event and its rollups commit together; OutboxRelay publishes it. */
+    private ActivityResponse saveAndPublish(ActivityRequest request) {
+
+        Activity activity=inTransaction(status -> {
+            Activity saved=activityRepository.save(toActivity(request));
+            mongoTemplate.insert(OutboxEvent.of(saved));
+            activityRollupService.record(List.of(saved));
+            return saved;
+        });
+        return mapToResponse(activity);
+    }
+
+    /**
+     * Many activities of a wearable sync in one call: each distinct user is
+     * validated once, and all items plus their outbox events are written with
+     * two unordered bulk inserts in one transaction. Invalid items are rejected
+     * individually; the valid ones are stored (and later published) all or none.
+     */
+    public Mono<ActivityBatchResponse> trackActivities(List<ActivityRequest> requests, String gatewayUserId) {
+
+        log.info("In ACTIVITY-SERVICE/ActivityService/trackActivities, {} activities",requests.size());
 
-        if(!isValid){
-            throw new UserNotFoundException("User not exists with id: "+request.getUserId());
+        Set<String> userIds = requests.stream()
+                .map(ActivityRequest::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        return Flux.fromIterable(userIds)
+                .flatMap(userId -> userValidationService.validateUser(userId, gatewayUserId)
+                        .map(isValid -> Map.entry(userId, isValid)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .publishOn(blockingScheduler)
+                .map(validUsers -> saveAndPublishAll(requests, validUsers));
+    }
+
+    private ActivityBatchResponse saveAndPublishAll(List<ActivityRequest> requests, Map<String, Boolean> validUsers) {
+
+        ActivityBatch batch = ActivityBatch.of(requests, validUsers);
+        return batch.complete(insertWithEvents(batch.activities()));
+    }
+
+    /** Unordered bulk inserts of the activities and their outbox events, plus their rollups, in one transaction. */
+    private boolean insertWithEvents(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return true;
         }
+        List<OutboxEvent> events = activities.stream().map(OutboxEvent::of).toList();
+        try {
+            inTransaction(status -> {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Activity.class)
+                        .insert(activities)
+                        .execute();
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEvent.class)
+                        .insert(events)
+                        .execute();
+                activityRollupService.record(activities);
+                return null;
+            });
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Bulk insert of {} activities failed: {}", activities.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Concurrent ingests of one user $inc the same rollup documents; Mongo aborts
+     * the loser of such a write conflict and labels it transient, so run it again.
+     */
+    private <T> T inTransaction(TransactionCallback<T> callback) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(callback);
+            } catch (DataAccessException e) {
+                if (attempt == MAX_TRANSACTION_ATTEMPTS || !isTransient(e)) {
+                    throw e;
+                }
+                log.debug("Retrying transaction after transient error: {}", e.getMessage());
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        Activity activity=Activity.builder()
+    static Activity toActivity(ActivityRequest request) {
+        return Activity.builder()
                 .userId(request.getUserId())
                 .activityType(request.getActivityType())
                 .duration(request.getDuration())
@@ -45,26 +172,17 @@ public class ActivityService {
                 .caloriesBurned(request.getCaloriesBurned())
                 .additionalMetrics(request.getAdditionalMetrics())
                 .build();
-
-        activity=activityRepository.save(activity);
-
-        try {
-            kafkaTemplate.send(topicName,activity.getUserId(),activity)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            System.err.println("Kafka send failed: " + ex.getMessage());
-                        }
-                    });
-        }catch (Exception e){
-            e.printStackTrace();
-        }
-
-        return mapToResponse(activity);
     }
 
     private ActivityResponse mapToResponse(Activity activity){
 
-        ActivityResponse response= ActivityResponse.builder()
+        ActivityResponse response= toResponse(activity);
+        log.info("In ACTIVITY-SERVICE/ActivityService/mapToResponse, response: {}",response);
+        return response;
+    }
+
+    static ActivityResponse toResponse(Activity activity){
+        return ActivityResponse.builder()
                 .id(activity.getId())
                 .userId(activity.getUserId())
                 .activityType(activity.getActivityType())
@@ -75,26 +193,66 @@ public class ActivityService {
                 .createdAt(activity.getCreatedAt())
                 .updatedAt(activity.getUpdatedAt())
                 .build();
-        log.info("In ACTIVITY-SERVICE/ActivityService/mapToResponse, response: {}",response);
-        return response;
     }
 
-    public List<ActivityResponse> getActivities(int page, int size, String userId) {
+    static ActivityListItem toListItem(Activity activity){
+        return ActivityListItem.builder()
+                .id(activity.getId())
+                .activityType(activity.getActivityType())
+                .duration(activity.getDuration())
+                .caloriesBurned(activity.getCaloriesBurned())
+                .startTime(activity.getStartTime())
+                .additionalMetrics(activity.getAdditionalMetrics())
+                .build();
+    }
+
+    /** List entry for the view: ActivityListItem for SUMMARY, ActivityResponse otherwise. */
+    static Function<Activity, Object> toListEntry(ActivityView view) {
+        return view == ActivityView.SUMMARY ? ActivityService::toListItem : ActivityService::toResponse;
+    }
+
+    public List<Object> getActivities(int page, int size, String userId, ActivityView view, boolean includeMetrics) {
 
-        PageRequest pageRequest = PageRequest.of(page, size);
+        PageRequest pageRequest = PageRequest.of(page, size, ActivityRepository.FEED_ORDER);
 
         return activityRepository
-                .findByUserId(userId, pageRequest)
+                .findByUserId(userId, pageRequest, view, includeMetrics)
                 .stream()
-                .map(this::mapToResponse)
+                .map(toListEntry(view))
                 .toList();
     }
 
-    public ActivityResponse getActivityById(String activityId) {
+    /** Keyset page of the user's activities, newest first; cursor is null for the first page. */
+    public ActivityFeedResponse<Object> getActivityFeed(String userId, String cursor, int size,
+                                                        ActivityView view, boolean includeMetrics) {
+
+        Slice<Activity> slice = activityRepository.findByUserIdAfter(
+                userId, cursor == null ? null : ActivityCursor.decode(cursor), size, view, includeMetrics);
+
+        return toFeed(slice, view);
+    }
+
+    public static ActivityFeedResponse<Object> toFeed(Slice<Activity> slice, ActivityView view) {
+        return ActivityFeedResponse.builder()
+                .content(slice.stream().map(toListEntry(view)).toList())
+                .nextCursor(slice.hasNext() ? ActivityCursor.after(slice.getContent().getLast()).encode() : null)
+                .build();
+    }
+
+    public ActivitySummaryResponse getSummary(String userId, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        return activityRollupService.getSummary(userId, from, to, granularity);
+    }
+
+    /** The activity's JSON, straight from {@link ActivityResponseCache} when it was read recently. */
+    public byte[] getActivityById(String activityId) {
+        byte[] cached = activityResponseCache.get(activityId);
+        if (cached != null) {
+            return cached;
+        }
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new UserNotFoundException("Activity not found"));
 
-        return mapToResponse(activity);
+        return activityResponseCache.put(mapToResponse(activity));
     }
 
 
@@ -0,0 +1,223 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the activity_outbox to Kafka in the background, so ingest never
+ * waits on the broker and an event is never lost between the Mongo write and
+ * the send.
+ *
+ * Design decisions:
+ *  - Every poll claims up to batch-size due events with a lease (nextAttemptAt
+ *    moved forward, claimedBy set), so several instances can relay side by side
+ *    and an event held by a crashed instance is picked up once the lease ends.
+ *  - The batch is sent back to back and awaited as a whole; acknowledged events
+ *    are deleted, failed ones are retried with exponential backoff capped at
+ *    max-backoff. A send that fails synchronously (no broker metadata within
+ *    max.block.ms) stops the batch: the rest is rescheduled unsent rather than
+ *    each blocking in turn past the lease. Delivery is at-least-once: AI-SERVICE skips activities it
+ *    already has a recommendation for.
+ *  - Keeps draining while polls come back full, then waits poll-interval.
+ *  - Meters: activity.outbox.lag (age of the oldest unpublished event, seconds,
+ *    computed at scrape time so it keeps growing while Mongo or Kafka is down)
+ *    and activity.outbox.events{outcome=published|failed}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Activity> kafkaTemplate;
+    private final String topicName;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final String relayId = UUID.randomUUID().toString();
+    private final AtomicReference<Instant> oldestUnpublished = new AtomicReference<>();
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(
+            MongoTemplate mongoTemplate,
+            KafkaTemplate<String, Activity> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.topic.name}") String topicName,
+            @Value("${activity.outbox.batch-size:100}") int batchSize,
+            @Value("${activity.outbox.lease:PT1M}") Duration lease,
+            @Value("${activity.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${activity.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topicName = topicName;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("activity.outbox.lag", oldestUnpublished, OutboxRelay::lagSeconds)
+                .description("Age of the oldest activity event not yet published to Kafka")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.published = Counter.builder("activity.outbox.events")
+                .description("Outbox deliveries by outcome")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.failed = Counter.builder("activity.outbox.events")
+                .description("Outbox deliveries by outcome")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${activity.outbox.poll-interval:PT1S}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox relay failed: {}", e.toString());
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CompletableFuture<?> send = send(event);
+            sends.add(send);
+            if (send.isCompletedExceptionally()) {
+                // broker unreachable: the rest would each block for max.block.ms too
+                while (sends.size() < batch.size()) {
+                    sends.add(send);
+                }
+                break;
+            }
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new));
+        try {
+            // acks are bounded by the producer's delivery.timeout.ms, each send() call by
+            // max.block.ms; the lease is the last resort
+            all.get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ignored) {
+            // per-event outcome is read below
+        }
+
+        List<String> delivered = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                delivered.add(event.getId());
+            } else {
+                reschedule(event, send);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(delivered)), OutboxEvent.class);
+        }
+        published.increment(delivered.size());
+        failed.increment(batch.size() - delivered.size());
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(topicName, event.getKey(), event.getPayload());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Leases up to batch-size due events to this relay, oldest first. */
+    private List<OutboxEvent> claim() {
+        Instant now = Instant.now();
+        Query due = Query.query(Criteria.where("nextAttemptAt").lte(now))
+                .with(Sort.by("createdAt"))
+                .limit(batchSize);
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, OutboxEvent.class).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claim = relayId + ':' + now.toEpochMilli();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids).and("nextAttemptAt").lte(now)),
+                new Update().set("claimedBy", claim).set("nextAttemptAt", now.plus(lease)),
+                OutboxEvent.class);
+        return mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids).and("claimedBy").is(claim)).with(Sort.by("createdAt")),
+                OutboxEvent.class);
+    }
+
+    private void reschedule(OutboxEvent event, CompletableFuture<?> send) {
+        String error = send.isDone() ? send.handle((result, e) -> String.valueOf(e)).join() : "send timed out";
+        int attempts = event.getAttempts() + 1;
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        log.warn("Publishing activity {} failed (attempt {}), retrying in {}: {}",
+                event.getActivityId(), attempts, backoff, error);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(event.getId())),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("lastError", error)
+                        .set("nextAttemptAt", Instant.now().plus(backoff))
+                        .unset("claimedBy"),
+                OutboxEvent.class);
+    }
+
+    /** Keeps the last known oldest event when Mongo cannot be read, so the lag keeps growing. */
+    private void updateLag() {
+        try {
+            Query oldest = new Query().with(Sort.by("createdAt")).limit(1);
+            oldest.fields().include("createdAt");
+            OutboxEvent event = mongoTemplate.findOne(oldest, OutboxEvent.class);
+            oldestUnpublished.set(event == null ? null : event.getCreatedAt());
+        } catch (Exception e) {
+            log.debug("Outbox lag not refreshed: {}", e.toString());
+        }
+    }
+
+    private static double lagSeconds(AtomicReference<Instant> oldestUnpublished) {
+        Instant oldest = oldestUnpublished.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis()) / 1000.0;
+    }
+}
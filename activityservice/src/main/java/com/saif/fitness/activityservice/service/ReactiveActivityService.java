@@ -0,0 +1,170 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.dto.ActivityBatchResponse;
+import com.saif.fitness.activityservice.dto.ActivityFeedResponse;
+import com.saif.fitness.activityservice.dto.ActivityRequest;
+import com.saif.fitness.activityservice.dto.ActivityResponse;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
+import com.saif.fitness.activityservice.exception.UserNotFoundException;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.ActivityRollup;
+import com.saif.fitness.activityservice.models.OutboxEvent;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import com.saif.fitness.activityservice.repository.ActivityCursor;
+import com.saif.fitness.activityservice.repository.ActivityRepository;
+import com.saif.fitness.activityservice.repository.ActivityRepositoryImpl;
+import com.saif.fitness.activityservice.repository.ReactiveActivityRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link ActivityService} for the WebFlux variant: the same documents and
+ * rules, with no blocking call between the request and the Mongo driver.
+ *
+ * Design decisions:
+ *  - User validation, the transactional write (activity, outbox event,
+ *    rollups) and the response are one pipeline on the event loop; a request
+ *    waiting on Mongo or USER-SERVICE holds no thread, so thousands can be in
+ *    flight on a small instance.
+ *  - Kafka is not on this path: events go through the outbox as on the
+ *    servlet stack, and OutboxRelay's producer sends are already asynchronous.
+ *  - Transient transaction errors (write conflicts on a hot rollup) are
+ *    retried like {@link ActivityService} does.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveActivityService.class);
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+    private final ReactiveActivityRepository activityRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final UserValidationService userValidationService;
+    private final ActivityResponseCache activityResponseCache;
+
+    public Mono<ActivityResponse> trackActivity(ActivityRequest request, String gatewayUserId) {
+
+        log.debug("In ACTIVITY-SERVICE/ReactiveActivityService/trackActivity, request: {}",request);
+
+        return userValidationService.validateUser(request.getUserId(), gatewayUserId)
+                .flatMap(isValid -> {
+                    if(!isValid){
+                        return Mono.error(new UserNotFoundException("User not exists with id: "+request.getUserId()));
+                    }
+                    return inTransaction(Mono.defer(() -> activityRepository.save(ActivityService.toActivity(request))
+                            .flatMap(saved -> mongoTemplate.insert(OutboxEvent.of(saved))
+                                    .then(recordRollups(List.of(saved)))
+                                    .thenReturn(saved))));
+                })
+                .map(ActivityService::toResponse);
+    }
+
+    public Mono<ActivityBatchResponse> trackActivities(List<ActivityRequest> requests, String gatewayUserId) {
+
+        log.debug("In ACTIVITY-SERVICE/ReactiveActivityService/trackActivities, {} activities",requests.size());
+
+        return Flux.fromIterable(requests.stream().map(ActivityRequest::getUserId).filter(Objects::nonNull).distinct().toList())
+                .flatMap(userId -> userValidationService.validateUser(userId, gatewayUserId)
+                        .map(isValid -> Map.entry(userId, isValid)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(validUsers -> {
+                    ActivityBatch batch = ActivityBatch.of(requests, validUsers);
+                    return insertWithEvents(batch.activities()).map(batch::complete);
+                });
+    }
+
+    private Mono<Boolean> insertWithEvents(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return Mono.just(true);
+        }
+        List<OutboxEvent> events = activities.stream().map(OutboxEvent::of).toList();
+        return inTransaction(Mono.defer(() -> mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Activity.class)
+                        .insert(activities)
+                        .execute()
+                        .then(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEvent.class)
+                                .insert(events)
+                                .execute())
+                        .then(recordRollups(activities))))
+                .thenReturn(true)
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("Bulk insert of {} activities failed: {}", activities.size(), e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Void> recordRollups(List<Activity> activities) {
+        return Mono.defer(() -> {
+            Map<String, Update> upserts = ActivityRollupService.upserts(activities);
+            if (upserts.isEmpty()) {
+                return Mono.empty();
+            }
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+            upserts.forEach((id, update) -> bulk.upsert(Query.query(Criteria.where("_id").is(id)), update));
+            return bulk.execute().then();
+        });
+    }
+
+    private <T> Mono<T> inTransaction(Mono<T> work) {
+        return transactionalOperator.transactional(work)
+                .retryWhen(Retry.max(MAX_TRANSACTION_ATTEMPTS - 1)
+                        .filter(ActivityService::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    public Mono<List<Object>> getActivities(int page, int size, String userId, ActivityView view, boolean includeMetrics) {
+        Query query = ActivityRepositoryImpl.project(ActivityRepositoryImpl.pageQuery(
+                userId, PageRequest.of(page, size, ActivityRepository.FEED_ORDER)), view, includeMetrics);
+        return mongoTemplate.find(query, Activity.class)
+                .take(size)
+                .map(ActivityService.toListEntry(view))
+                .collectList();
+    }
+
+    public Mono<ActivityFeedResponse<Object>> getActivityFeed(String userId, String cursor, int size,
+                                                              ActivityView view, boolean includeMetrics) {
+        // defer: an undecodable cursor becomes an error signal, not a throw
+        return Mono.defer(() -> mongoTemplate.find(ActivityRepositoryImpl.project(ActivityRepositoryImpl.feedQuery(
+                                userId, cursor == null ? null : ActivityCursor.decode(cursor), size), view, includeMetrics),
+                                Activity.class)
+                        .collectList())
+                .map(activities -> ActivityService.toFeed(ActivityRepositoryImpl.toSlice(activities, size), view));
+    }
+
+    public Mono<ActivitySummaryResponse> getSummary(String userId, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        return mongoTemplate.find(ActivityRollupService.summaryQuery(userId, from, to, granularity), ActivityRollup.class)
+                .collectList()
+                .map(rollups -> ActivityRollupService.summarize(userId, from, to, granularity, rollups));
+    }
+
+    /** As {@link ActivityService#getActivityById(String)}, same cache. */
+    public Mono<byte[]> getActivityById(String activityId) {
+        return Mono.fromSupplier(() -> activityResponseCache.get(activityId))
+                .switchIfEmpty(activityRepository.findById(activityId)
+                        .switchIfEmpty(Mono.error(() -> new UserNotFoundException("Activity not found")))
+                        .map(activity -> activityResponseCache.put(ActivityService.toResponse(activity))));
+    }
+}
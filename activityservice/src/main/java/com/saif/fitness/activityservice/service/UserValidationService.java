@@ -1,29 +1,106 @@
 package com.saif.fitness.activityservice.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.saif.fitness.activityservice.exception.UserValidationUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
+/**
+ * Answers "does this user exist in USER-SERVICE?" for activity ingest without
+ * a blocking cross-service call on the request path.
+ *
+ * Design decisions:
+ *  - Answers are cached per user id: known users for positive-ttl, unknown ids
+ *    for the much shorter negative-ttl, so a user who registers right after a
+ *    miss is not locked out for long.
+ *  - Misses go through the non-blocking WebClient; concurrent misses for one
+ *    user share a single call (async cache). Errors and timeouts are not
+ *    cached and surface as {@link UserValidationUnavailableException} (503),
+ *    never as "user not found".
+ *  - trust-gateway-header: the gateway's KeycloakUserSyncFilter sets X-User-ID
+ *    to the verified JWT sub, overwriting whatever the client sent, and only
+ *    forwards the request once that user is known to (or registered in)
+ *    USER-SERVICE. A request whose userId matches the header therefore skips
+ *    validation. A direct caller can still send any header, so only turn it on
+ *    where the service is reachable through the gateway alone.
+ *  - Hit/miss/eviction stats are published as "cache.*" meters, name=user-validation.
+ */
 @Service
-@RequiredArgsConstructor
 public class UserValidationService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserValidationService.class);
+
     private final WebClient userServiceWebClient;
+    private final AsyncCache<String, Boolean> validatedUsers;
+    private final boolean trustGatewayHeader;
+    private final Duration timeout;
+
+    public UserValidationService(
+            WebClient userServiceWebClient,
+            MeterRegistry meterRegistry,
+            @Value("${activity.user-validation.trust-gateway-header:false}") boolean trustGatewayHeader,
+            @Value("${activity.user-validation.timeout:PT2S}") Duration timeout,
+            @Value("${activity.user-validation.cache.max-size:10000}") long maxSize,
+            @Value("${activity.user-validation.cache.positive-ttl:PT30M}") Duration positiveTtl,
+            @Value("${activity.user-validation.cache.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.userServiceWebClient = userServiceWebClient;
+        this.trustGatewayHeader = trustGatewayHeader;
+        this.timeout = timeout;
+        this.validatedUsers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Boolean>creating((userId, exists) -> exists ? positiveTtl : negativeTtl))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, validatedUsers, "user-validation");
+    }
 
-    public boolean validateUser(String userId){
-        try{
-            return userServiceWebClient.get()
-                    .uri("/api/users/{userId}/validate", userId)
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-        }catch (Exception e){
-            System.err.println("error occurred: "+e.getMessage());
-            e.printStackTrace();
+    /**
+     * Like {@link #validateUser(String)}, but accepts the user straight away when
+     * trust-gateway-header is on and the gateway forwarded the same user id.
+     */
+    public Mono<Boolean> validateUser(String userId, String gatewayUserId) {
+        if (trustGatewayHeader && userId != null && userId.equals(gatewayUserId)) {
+            return Mono.just(true);
         }
-        return false;
+        return validateUser(userId);
     }
 
+    /**
+     * Emits whether the user exists; completes immediately on a cache hit.
+     * Errors with {@link UserValidationUnavailableException} when USER-SERVICE
+     * cannot answer.
+     */
+    public Mono<Boolean> validateUser(String userId) {
+        if (userId == null || userId.isBlank()) {
+            return Mono.just(false);
+        }
+        // suppressCancel: one client hanging up must not cancel the shared call
+        return Mono.fromFuture(
+                () -> validatedUsers.get(userId, (key, executor) -> fetch(key).toFuture()),
+                true);
+    }
 
+    private Mono<Boolean> fetch(String userId) {
+        return userServiceWebClient.get()
+                .uri("/api/users/{userId}/validate", userId)
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .defaultIfEmpty(false)
+                .timeout(timeout)
+                .onErrorMap(e -> {
+                    log.warn("User validation failed for {}: {}", userId, e.toString());
+                    return new UserValidationUnavailableException("Could not validate user: " + userId, e);
+                });
+    }
 }
@@ -0,0 +1,204 @@
+package com.saif.fitness.activityservice.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.repository.ActivityRepositoryImpl;
+import com.saif.fitness.activityservice.service.ActivityService;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of one feed page per list view, on activities carrying wearable-sized
+ * metric maps (heart-rate samples, per-km splits, zones, device info). Seeds
+ * bench.activities activities for a synthetic user into its own database
+ * (reused across runs), then for each view reports, per page:
+ * <ul>
+ *   <li>page: {@link ActivityRepositoryImpl#findByUserIdAfter}, i.e. query plus
+ *       decode into Activity (median / max ms)</li>
+ *   <li>decode: BSON to Activity alone, on the same documents (median µs)</li>
+ *   <li>mongo: BSON bytes Mongo sends back for the page</li>
+ *   <li>json: response body bytes, as GET /api/activities writes them</li>
+ * </ul>
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it). Needs a
+ * MongoDB; knobs, as -D:
+ * <pre>
+ * bench.mongo-uri=mongodb://localhost:27017/activity_bench
+ * bench.activities=5000      # per user
+ * bench.page-size=20
+ * bench.rounds=50            # timed pages per view, after 5 warmup pages
+ * bench.sample-seconds=5     # heart-rate sample interval: smaller = bigger metric maps
+ * </pre>
+ */
+public class ActivityListViewBenchmark {
+
+    private static final String USER_ID = "bench-list-view-user";
+    private static final ActivityType[] TYPES = ActivityType.values();
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    public static void main(String[] args) {
+        String uri = System.getProperty("bench.mongo-uri", "mongodb://localhost:27017/activity_bench");
+        int activities = Integer.getInteger("bench.activities", 5_000);
+        int size = Integer.getInteger("bench.page-size", 20);
+        int rounds = Integer.getInteger("bench.rounds", 50);
+        int sampleSeconds = Integer.getInteger("bench.sample-seconds", 5);
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, connectionDatabase(uri));
+            seed(mongoTemplate, activities, sampleSeconds);
+            ActivityRepositoryImpl feed = new ActivityRepositoryImpl(mongoTemplate);
+            JsonMapper jsonMapper = JsonMapper.builder().build();
+
+            Map<String, Object[]> views = new LinkedHashMap<>();
+            views.put("full", new Object[]{ActivityView.FULL, true});
+            views.put("full, no metrics", new Object[]{ActivityView.FULL, false});
+            views.put("summary", new Object[]{ActivityView.SUMMARY, false});
+            views.put("summary + metrics", new Object[]{ActivityView.SUMMARY, true});
+
+            System.out.printf("activities=%d page-size=%d rounds=%d sample-seconds=%d%n",
+                    activities, size, rounds, sampleSeconds);
+            System.out.printf("%-18s %20s %14s %12s %12s%n", "view", "page ms (med/max)", "decode µs", "mongo B", "json B");
+            for (Map.Entry<String, Object[]> entry : views.entrySet()) {
+                ActivityView view = (ActivityView) entry.getValue()[0];
+                boolean includeMetrics = (Boolean) entry.getValue()[1];
+
+                double[] pageMillis = time(rounds, () -> feed.findByUserIdAfter(USER_ID, null, size, view, includeMetrics));
+
+                Query query = ActivityRepositoryImpl.project(ActivityRepositoryImpl.feedQuery(USER_ID, null, size),
+                        view, includeMetrics);
+                List<RawBsonDocument> raw = rawPage(mongoTemplate, query);
+                long mongoBytes = raw.stream().mapToLong(document -> document.getByteBuffer().remaining()).sum();
+                double[] decodeMillis = time(rounds, () -> raw.forEach(document ->
+                        mongoTemplate.getConverter().read(Activity.class, document.decode(DOCUMENT_CODEC))));
+
+                int jsonBytes = jsonMapper.writeValueAsBytes(ActivityService.toFeed(
+                        feed.findByUserIdAfter(USER_ID, null, size, view, includeMetrics), view)).length;
+
+                System.out.printf("%-18s %9.2f / %8.2f %14.0f %12d %12d%n", entry.getKey(),
+                        pageMillis[rounds / 2], pageMillis[rounds - 1], decodeMillis[rounds / 2] * 1000,
+                        mongoBytes, jsonBytes);
+            }
+        }
+    }
+
+    private static String connectionDatabase(String uri) {
+        String database = new ConnectionString(uri).getDatabase();
+        return database == null ? "activity_bench" : database;
+    }
+
+    /** The page as Mongo returns it, through the same query and field mapping MongoTemplate applies. */
+    private static List<RawBsonDocument> rawPage(MongoTemplate mongoTemplate, Query query) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Activity.class);
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Activity.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+                .limit(query.getLimit())
+                .into(new ArrayList<>());
+    }
+
+    /** (Re)creates the user's activities when the count is off. */
+    private static void seed(MongoTemplate mongoTemplate, int activities, int sampleSeconds) {
+        IndexOperations indexOps = mongoTemplate.indexOps(Activity.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Activity.class)
+                .forEach(indexOps::createIndex);
+
+        Query byUser = Query.query(Criteria.where("userId").is(USER_ID));
+        if (mongoTemplate.count(byUser, Activity.class) == activities) {
+            return;
+        }
+        mongoTemplate.remove(byUser, Activity.class);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime newest = LocalDateTime.now().withNano(0);
+        List<Activity> chunk = new ArrayList<>(1_000);
+        for (int i = 0; i < activities; i++) {
+            int duration = 10 + random.nextInt(80);
+            chunk.add(Activity.builder()
+                    .userId(USER_ID)
+                    .activityType(TYPES[random.nextInt(TYPES.length)])
+                    .duration(duration)
+                    .caloriesBurned(50 + random.nextInt(700))
+                    .startTime(newest.minusHours(i * 8L))
+                    .additionalMetrics(metrics(random, duration, sampleSeconds))
+                    .build());
+            if (chunk.size() == 1_000 || i == activities - 1) {
+                mongoTemplate.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        System.out.printf("seeded %d activities for %s%n", activities, USER_ID);
+    }
+
+    /** What a watch sync typically carries for one workout. */
+    private static Map<String, Object> metrics(ThreadLocalRandom random, int durationMinutes, int sampleSeconds) {
+        List<Integer> heartRate = new ArrayList<>();
+        int bpm = 90 + random.nextInt(20);
+        for (int second = 0; second < durationMinutes * 60; second += sampleSeconds) {
+            bpm = Math.max(60, Math.min(195, bpm + random.nextInt(-3, 4)));
+            heartRate.add(bpm);
+        }
+
+        double distanceKm = durationMinutes / (5.0 + random.nextDouble(3));
+        List<Map<String, Object>> splits = new ArrayList<>();
+        for (int km = 1; km <= (int) distanceKm; km++) {
+            splits.add(Map.of(
+                    "km", km,
+                    "paceSecondsPerKm", 280 + random.nextInt(140),
+                    "elevationGain", random.nextInt(30),
+                    "avgHeartRate", 120 + random.nextInt(50)));
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("source", "bench");
+        metrics.put("device", Map.of("model", "Forerunner 265", "firmware", "19.22"));
+        metrics.put("distanceKm", Math.round(distanceKm * 100) / 100.0);
+        metrics.put("steps", durationMinutes * (140 + random.nextInt(40)));
+        metrics.put("avgHeartRate", heartRate.stream().mapToInt(Integer::intValue).sum() / Math.max(1, heartRate.size()));
+        metrics.put("maxHeartRate", heartRate.stream().mapToInt(Integer::intValue).max().orElse(0));
+        metrics.put("heartRateZonesSeconds", Map.of("z1", random.nextInt(600), "z2", random.nextInt(1200),
+                "z3", random.nextInt(1200), "z4", random.nextInt(600), "z5", random.nextInt(300)));
+        metrics.put("elevation", Map.of("gain", random.nextInt(400), "loss", random.nextInt(400)));
+        metrics.put("heartRateSamples", heartRate);
+        metrics.put("splits", splits);
+        return metrics;
+    }
+
+    private static double[] time(int rounds, Runnable fetch) {
+        for (int i = 0; i < 5; i++) {
+            fetch.run();
+        }
+        double[] millis = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            fetch.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+}
@@ -0,0 +1,166 @@
+package com.saif.fitness.activityservice.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import com.saif.fitness.activityservice.models.enums.ActivityView;
+import com.saif.fitness.activityservice.repository.ActivityCursor;
+import com.saif.fitness.activityservice.repository.ActivityRepository;
+import com.saif.fitness.activityservice.repository.ActivityRepositoryImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Offset versus keyset paging of one user's feed at increasing depth. Seeds
+ * bench.activities activities for a synthetic user into its own database
+ * (reused across runs), creates the indexes declared on {@link Activity}, then
+ * times the page at each depth:
+ * <ul>
+ *   <li>offset+count: the former Page query, skip plus a count per call</li>
+ *   <li>offset: the same skip without the count, as ?page= is served now</li>
+ *   <li>keyset: {@link ActivityRepositoryImpl#findByUserIdAfter}, from a cursor</li>
+ * </ul>
+ * and finally walks the whole feed by cursor.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it). Needs a
+ * MongoDB; knobs, as -D:
+ * <pre>
+ * bench.mongo-uri=mongodb://localhost:27017/activity_bench
+ * bench.activities=100000    # per user
+ * bench.page-size=20
+ * bench.rounds=20            # timed fetches per depth, after 3 warmup fetches
+ * </pre>
+ */
+public class ActivityPaginationBenchmark {
+
+    private static final String USER_ID = "bench-pagination-user";
+    private static final ActivityType[] TYPES = ActivityType.values();
+
+    public static void main(String[] args) {
+        String uri = System.getProperty("bench.mongo-uri", "mongodb://localhost:27017/activity_bench");
+        int activities = Integer.getInteger("bench.activities", 100_000);
+        int size = Integer.getInteger("bench.page-size", 20);
+        int rounds = Integer.getInteger("bench.rounds", 20);
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, connectionDatabase(uri));
+            seed(mongoTemplate, activities);
+            ActivityRepositoryImpl feed = new ActivityRepositoryImpl(mongoTemplate);
+
+            int lastPage = (activities - 1) / size;
+            int[] depths = Arrays.stream(new int[]{0, 10, 100, 1_000, lastPage / 2, lastPage})
+                    .filter(page -> page <= lastPage)
+                    .distinct()
+                    .toArray();
+            Map<Integer, ActivityCursor> cursors = cursorsAt(feed, depths, size);
+
+            System.out.printf("activities=%d page-size=%d rounds=%d (median / max ms per page)%n", activities, size, rounds);
+            System.out.printf("%8s %20s %20s %20s%n", "page", "offset+count", "offset", "keyset");
+            for (int page : depths) {
+                PageRequest pageRequest = PageRequest.of(page, size, ActivityRepository.FEED_ORDER);
+                Query byUser = Query.query(Criteria.where("userId").is(USER_ID));
+                String offsetWithCount = time(rounds, () -> {
+                    mongoTemplate.count(byUser, Activity.class);
+                    mongoTemplate.find(Query.of(byUser).with(pageRequest), Activity.class);
+                });
+                String offset = time(rounds, () -> mongoTemplate.find(Query.of(byUser).with(pageRequest), Activity.class));
+                String keyset = time(rounds, () -> feed.findByUserIdAfter(USER_ID, cursors.get(page), size, ActivityView.FULL, true));
+                System.out.printf("%8d %20s %20s %20s%n", page, offsetWithCount, offset, keyset);
+            }
+
+            long start = System.nanoTime();
+            int pages = 0;
+            ActivityCursor cursor = null;
+            Slice<Activity> slice;
+            do {
+                slice = feed.findByUserIdAfter(USER_ID, cursor, size, ActivityView.FULL, true);
+                cursor = slice.hasNext() ? ActivityCursor.after(slice.getContent().getLast()) : null;
+                pages++;
+            } while (slice.hasNext());
+            System.out.printf("keyset walk of all %d pages: %d ms%n", pages, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static String connectionDatabase(String uri) {
+        String database = new ConnectionString(uri).getDatabase();
+        return database == null ? "activity_bench" : database;
+    }
+
+    /** (Re)creates the user's activities when the count is off; startTimes repeat so ties on startTime occur. */
+    private static void seed(MongoTemplate mongoTemplate, int activities) {
+        IndexOperations indexOps = mongoTemplate.indexOps(Activity.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Activity.class)
+                .forEach(indexOps::createIndex);
+
+        Query byUser = Query.query(Criteria.where("userId").is(USER_ID));
+        if (mongoTemplate.count(byUser, Activity.class) == activities) {
+            return;
+        }
+        mongoTemplate.remove(byUser, Activity.class);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime newest = LocalDateTime.now().withNano(0);
+        List<Activity> chunk = new ArrayList<>(10_000);
+        for (int i = 0; i < activities; i++) {
+            chunk.add(Activity.builder()
+                    .userId(USER_ID)
+                    .activityType(TYPES[random.nextInt(TYPES.length)])
+                    .duration(10 + random.nextInt(80))
+                    .caloriesBurned(50 + random.nextInt(700))
+                    .startTime(newest.minusMinutes(i / 2 * 30L))
+                    .additionalMetrics(Map.of("source", "bench"))
+                    .build());
+            if (chunk.size() == 10_000 || i == activities - 1) {
+                mongoTemplate.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        System.out.printf("seeded %d activities for %s%n", activities, USER_ID);
+    }
+
+    /** The cursor that starts each page, found by walking the feed once. */
+    private static Map<Integer, ActivityCursor> cursorsAt(ActivityRepositoryImpl feed, int[] pages, int size) {
+        Map<Integer, ActivityCursor> cursors = new HashMap<>();
+        ActivityCursor cursor = null;
+        int last = pages[pages.length - 1];
+        for (int page = 0; page <= last; page++) {
+            cursors.put(page, cursor);
+            Slice<Activity> slice = feed.findByUserIdAfter(USER_ID, cursor, size, ActivityView.FULL, true);
+            if (!slice.hasNext()) {
+                break;
+            }
+            cursor = ActivityCursor.after(slice.getContent().getLast());
+        }
+        return cursors;
+    }
+
+    private static String time(int rounds, Runnable fetch) {
+        for (int i = 0; i < 3; i++) {
+            fetch.run();
+        }
+        double[] millis = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            fetch.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return String.format("%8.2f / %8.2f", millis[rounds / 2], millis[rounds - 1]);
+    }
+}
@@ -0,0 +1,126 @@
+package com.saif.fitness.activityservice.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ingest throughput of one wearable sync: N activities as N single
+ * POST /api/activities/track calls versus one POST /api/activities/track/batch.
+ * Runs against a live activity-service (Mongo, Kafka and USER-SERVICE up) and
+ * writes real activities for the given user, so point it at a dev stack.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it). Knobs, as -D:
+ * <pre>
+ * bench.url=http://localhost:8082
+ * bench.user-id=...          # required: an existing user (Keycloak id)
+ * bench.activities=50        # activities per sync
+ * bench.rounds=20            # syncs per mode, after 3 warmup syncs
+ * bench.concurrency=1        # single calls in flight (1 = the app's sequential upload)
+ * </pre>
+ */
+public class BatchIngestBenchmark {
+
+    private static final String[] TYPES = {"RUNNING", "CYCLING", "WALKING", "SWIMMING", "YOGA"};
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.url", "http://localhost:8082");
+        String userId = System.getProperty("bench.user-id");
+        if (userId == null) {
+            throw new IllegalArgumentException("-Dbench.user-id is required");
+        }
+        int activities = Integer.getInteger("bench.activities", 50);
+        int rounds = Integer.getInteger("bench.rounds", 20);
+        int concurrency = Integer.getInteger("bench.concurrency", 1);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Ingest single = sync -> singleCalls(client, url, userId, sync, concurrency);
+        Ingest batch = sync -> batchCall(client, url, userId, sync);
+
+        System.out.printf("activities/sync=%d rounds=%d single-call concurrency=%d%n", activities, rounds, concurrency);
+        report("single", run(single, userId, activities, rounds), activities);
+        report("batch", run(batch, userId, activities, rounds), activities);
+    }
+
+    private static long[] run(Ingest ingest, String userId, int activities, int rounds) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            ingest.send(sync(userId, activities));
+        }
+        long[] millis = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            List<String> sync = sync(userId, activities);
+            long start = System.nanoTime();
+            ingest.send(sync);
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        return millis;
+    }
+
+    private static void singleCalls(HttpClient client, String url, String userId, List<String> sync, int concurrency) {
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        for (String activity : sync) {
+            inFlight.add(client.sendAsync(post(url + "/api/activities/track", userId, activity),
+                    HttpResponse.BodyHandlers.discarding()).thenAccept(BatchIngestBenchmark::check));
+            if (inFlight.size() == concurrency) {
+                CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+                inFlight.clear();
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void batchCall(HttpClient client, String url, String userId, List<String> sync) throws Exception {
+        String body = "[" + String.join(",", sync) + "]";
+        check(client.send(post(url + "/api/activities/track/batch", userId, body), HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private static HttpRequest post(String uri, String userId, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .header("X-User-ID", userId)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void check(HttpResponse<?> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri() + " answered " + response.statusCode());
+        }
+    }
+
+    private static List<String> sync(String userId, int activities) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = LocalDateTime.now().minusDays(1).withNano(0);
+        List<String> sync = new ArrayList<>(activities);
+        for (int i = 0; i < activities; i++) {
+            sync.add(String.format(
+                    "{\"userId\":\"%s\",\"activityType\":\"%s\",\"duration\":%d,\"caloriesBurned\":%d,"
+                            + "\"startTime\":\"%s\",\"additionalMetrics\":{\"source\":\"bench\"}}",
+                    userId, TYPES[random.nextInt(TYPES.length)], 10 + random.nextInt(80),
+                    50 + random.nextInt(700), start.plusMinutes(i)));
+        }
+        return sync;
+    }
+
+    private static void report(String mode, long[] millis, int activities) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        double meanMillis = Arrays.stream(millis).average().orElse(0);
+        System.out.printf("%-7s sync p50 %5dms  max %5dms  mean %7.1fms  %8.0f activities/s%n",
+                mode, sorted[sorted.length / 2], sorted[sorted.length - 1], meanMillis,
+                meanMillis == 0 ? 0 : activities * 1000 / meanMillis);
+    }
+
+    @FunctionalInterface
+    private interface Ingest {
+        void send(List<String> sync) throws Exception;
+    }
+}
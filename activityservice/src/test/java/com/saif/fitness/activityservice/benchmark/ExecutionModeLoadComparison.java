@@ -0,0 +1,170 @@
+package com.saif.fitness.activityservice.benchmark;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One endpoint under rising concurrency on several activity-service instances
+ * that differ only in how they run requests, all on the same Mongo:
+ * <pre>
+ * platform   defaults (Tomcat's 200 threads, blocking steps on boundedElastic)
+ * virtual    ACTIVITY_VIRTUAL_THREADS=true
+ * reactive   ACTIVITY_WEB_STACK=reactive
+ * </pre>
+ * Prints throughput, p50/p99/p999 and errors per instance and level; where a
+ * thread-per-request instance runs out of threads, its latency climbs while
+ * its throughput stays flat.
+ *
+ * Start every instance with TRUST_GATEWAY_USER_HEADER=true (the harness sends
+ * X-User-ID) so USER-SERVICE is not part of the measurement, and with the same
+ * heap (e.g. -Xmx256m, as on the free tier). Watch each server's threads and
+ * RSS while it runs (jcmd PID Thread.print | grep -c tid, or top), and the
+ * virtual instance's activity.virtual-threads.pinned timers.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it). Knobs, as -D:
+ * <pre>
+ * bench.targets=platform=http://localhost:8082,virtual=http://localhost:8083
+ * bench.user-id=...                 # required: the activities' user
+ * bench.scenario=track              # track: POST /track (writes real activities)
+ *                                   # feed: GET /api/activities?userId=...&amp;size=20
+ * bench.concurrency=100,400,1600,3200   # requests in flight (closed loop), per level
+ * bench.warmup=PT10S
+ * bench.duration=PT30S
+ * </pre>
+ *
+ * Closed-loop load: a slow response delays the next request on its worker, so
+ * the tail under overload is understated.
+ */
+public class ExecutionModeLoadComparison {
+
+    private static final String[] TYPES = {"RUNNING", "CYCLING", "WALKING", "SWIMMING", "YOGA"};
+
+    public static void main(String[] args) {
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String target : System.getProperty("bench.targets",
+                "platform=http://localhost:8082,virtual=http://localhost:8083").split(",")) {
+            String[] nameAndUrl = target.split("=", 2);
+            targets.put(nameAndUrl[0], nameAndUrl[1]);
+        }
+        String userId = System.getProperty("bench.user-id");
+        if (userId == null) {
+            throw new IllegalArgumentException("-Dbench.user-id is required");
+        }
+        boolean feed = "feed".equals(System.getProperty("bench.scenario", "track"));
+        int[] levels = Arrays.stream(System.getProperty("bench.concurrency", "100,400,1600,3200").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration warmup = Duration.parse(System.getProperty("bench.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("bench.duration", "PT30S"));
+
+        int maxConcurrency = Arrays.stream(levels).max().orElse(1);
+        ConnectionProvider connections = ConnectionProvider.builder("bench-client")
+                .maxConnections(maxConcurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)
+                        .responseTimeout(Duration.ofSeconds(30))))
+                .build();
+
+        System.out.printf("scenario=%s levels=%s warmup=%s duration=%s%n",
+                feed ? "feed" : "track", Arrays.toString(levels), warmup, duration);
+        for (int concurrency : levels) {
+            for (Map.Entry<String, String> target : targets.entrySet()) {
+                drive(client, target.getValue(), feed, userId, concurrency, warmup);
+                System.out.println(drive(client, target.getValue(), feed, userId, concurrency, duration)
+                        .named(target.getKey()));
+            }
+        }
+        connections.disposeLater().block();
+    }
+
+    private static Result drive(WebClient client, String baseUrl, boolean feed, String userId,
+                                int concurrency, Duration duration) {
+        Timer latency = Timer.builder("bench.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .percentilePrecision(3)
+                .distributionStatisticExpiry(duration.multipliedBy(2))
+                .distributionStatisticBufferLength(1)
+                .register(new SimpleMeterRegistry());
+        AtomicLong errors = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Mono<Void> one = Mono.defer(() -> {
+            long start = System.nanoTime();
+            WebClient.RequestHeadersSpec<?> request = feed
+                    ? client.get().uri(baseUrl + "/api/activities?userId={userId}&size=20", userId)
+                    : client.post().uri(baseUrl + "/api/activities/track")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(activity(userId));
+            return request
+                    .header("X-User-ID", userId)
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .doOnNext(ok -> {
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    })
+                    .then();
+        });
+
+        long started = System.nanoTime();
+        Mono.delay(duration).subscribe(tick -> running.set(false));
+        Flux.range(0, concurrency)
+                .flatMap(worker -> one.repeat(running::get), concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        Map<Double, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+        }
+        return new Result(null, concurrency, snapshot.count(), errors.get(), snapshot.count() / seconds,
+                percentiles.get(0.5), percentiles.get(0.99), percentiles.get(0.999));
+    }
+
+    private static String activity(String userId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format(
+                "{\"userId\":\"%s\",\"activityType\":\"%s\",\"duration\":%d,\"caloriesBurned\":%d,"
+                        + "\"startTime\":\"%s\",\"additionalMetrics\":{\"source\":\"bench\"}}",
+                userId, TYPES[random.nextInt(TYPES.length)], 10 + random.nextInt(80),
+                50 + random.nextInt(700), LocalDateTime.now().minusMinutes(random.nextInt(10_000)).withNano(0));
+    }
+
+    private record Result(String target, int concurrency, long requests, long errors, double perSecond,
+                          double p50Millis, double p99Millis, double p999Millis) {
+
+        Result named(String target) {
+            return new Result(target, concurrency, requests, errors, perSecond, p50Millis, p99Millis, p999Millis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-9s c=%-5d %9d req %6d err %9.0f req/s   p50 %8.2fms   p99 %8.2fms   p999 %8.2fms",
+                    target, concurrency, requests, errors, perSecond, p50Millis, p99Millis, p999Millis);
+        }
+    }
+}
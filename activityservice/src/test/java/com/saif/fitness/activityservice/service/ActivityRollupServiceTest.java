@@ -0,0 +1,119 @@
+package com.saif.fitness.activityservice.service;
+
+import com.saif.fitness.activityservice.dto.ActivitySummaryBucket;
+import com.saif.fitness.activityservice.dto.ActivitySummaryResponse;
+import com.saif.fitness.activityservice.dto.ActivityTotals;
+import com.saif.fitness.activityservice.models.Activity;
+import com.saif.fitness.activityservice.models.ActivityRollup;
+import com.saif.fitness.activityservice.models.enums.ActivityType;
+import com.saif.fitness.activityservice.models.enums.RollupGranularity;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Bucketing and totals of the rollups, no Mongo involved. */
+class ActivityRollupServiceTest {
+
+    private static final String USER = "user-1";
+
+    @Test
+    void bucketsStartOnMondayAndTheFirstOfTheMonth() {
+        LocalDate sunday = LocalDate.of(2026, 10, 18);
+        LocalDate monday = LocalDate.of(2026, 10, 12);
+
+        assertThat(RollupGranularity.DAY.bucketOf(sunday)).isEqualTo(sunday);
+        assertThat(RollupGranularity.WEEK.bucketOf(sunday)).isEqualTo(monday);
+        assertThat(RollupGranularity.WEEK.bucketOf(monday)).isEqualTo(monday);
+        assertThat(RollupGranularity.WEEK.bucketOf(LocalDate.of(2026, 10, 1))).isEqualTo(LocalDate.of(2026, 9, 28));
+        assertThat(RollupGranularity.MONTH.bucketOf(LocalDate.of(2026, 10, 31))).isEqualTo(LocalDate.of(2026, 10, 1));
+        assertThat(RollupGranularity.MONTH.next(LocalDate.of(2026, 12, 1))).isEqualTo(LocalDate.of(2027, 1, 1));
+    }
+
+    @Test
+    void upsertsFoldActivitiesPerBucketAndType() {
+        Map<String, Update> upserts = ActivityRollupService.upserts(List.of(
+                activity(ActivityType.RUNNING, LocalDateTime.of(2026, 10, 17, 7, 0), 30, 300),
+                activity(ActivityType.RUNNING, LocalDateTime.of(2026, 10, 18, 7, 0), 45, 450),
+                activity(ActivityType.CYCLING, LocalDateTime.of(2026, 10, 18, 18, 0), 60, null),
+                // no startTime: bucketed by createdAt, the next week
+                Activity.builder().userId(USER).activityType(ActivityType.WALKING).duration(20)
+                        .createdAt(LocalDateTime.of(2026, 10, 19, 9, 0)).build(),
+                // no user: not rolled up
+                Activity.builder().activityType(ActivityType.YOGA).startTime(LocalDateTime.of(2026, 10, 18, 8, 0)).build()));
+
+        // days: 17 RUNNING, 18 RUNNING, 18 CYCLING, 19 WALKING; weeks and months: one per type
+        assertThat(upserts).hasSize(10);
+        assertThat(increments(upserts, RollupGranularity.WEEK, "2026-10-12", ActivityType.RUNNING))
+                .containsEntry("count", 2L)
+                .containsEntry("totalDuration", 75L)
+                .containsEntry("totalCalories", 750L);
+        assertThat(increments(upserts, RollupGranularity.WEEK, "2026-10-12", ActivityType.CYCLING))
+                .containsEntry("count", 1L)
+                .containsEntry("totalCalories", 0L);
+        assertThat(increments(upserts, RollupGranularity.WEEK, "2026-10-19", ActivityType.WALKING))
+                .containsEntry("count", 1L)
+                .containsEntry("totalDuration", 20L);
+        assertThat(increments(upserts, RollupGranularity.MONTH, "2026-10-01", ActivityType.RUNNING))
+                .containsEntry("count", 2L);
+    }
+
+    @Test
+    void summaryTotalsPerBucketTypeAndOverall() {
+        List<ActivityRollup> rollups = List.of(
+                rollup("2026-10-19", ActivityType.RUNNING, 1, 40, 400),
+                rollup("2026-10-12", ActivityType.RUNNING, 2, 75, 750),
+                rollup("2026-10-12", ActivityType.CYCLING, 1, 60, 500));
+
+        ActivitySummaryResponse summary = ActivityRollupService.summarize(USER,
+                LocalDate.of(2026, 10, 14), LocalDate.of(2026, 10, 21), RollupGranularity.WEEK, rollups);
+
+        assertThat(summary.getFrom()).isEqualTo(LocalDate.of(2026, 10, 12));
+        assertThat(summary.getTo()).isEqualTo(LocalDate.of(2026, 10, 25));
+        assertThat(summary.getTotals()).isEqualTo(new ActivityTotals(4, 175, 1650));
+        assertThat(summary.getBuckets()).extracting(ActivitySummaryBucket::getStart)
+                .containsExactly(LocalDate.of(2026, 10, 12), LocalDate.of(2026, 10, 19));
+
+        ActivitySummaryBucket firstWeek = summary.getBuckets().getFirst();
+        assertThat(firstWeek.getTotals()).isEqualTo(new ActivityTotals(3, 135, 1250));
+        assertThat(firstWeek.getByType())
+                .containsEntry(ActivityType.RUNNING, new ActivityTotals(2, 75, 750))
+                .containsEntry(ActivityType.CYCLING, new ActivityTotals(1, 60, 500));
+    }
+
+    private static Document increments(Map<String, Update> upserts, RollupGranularity granularity,
+                                       String bucketStart, ActivityType type) {
+        Update update = upserts.get(ActivityRollup.idOf(USER, granularity, bucketStart, type));
+        assertThat(update).isNotNull();
+        return update.getUpdateObject().get("$inc", Document.class);
+    }
+
+    private static Activity activity(ActivityType type, LocalDateTime startTime, Integer duration, Integer calories) {
+        return Activity.builder()
+                .userId(USER)
+                .activityType(type)
+                .startTime(startTime)
+                .duration(duration)
+                .caloriesBurned(calories)
+                .build();
+    }
+
+    private static ActivityRollup rollup(String bucketStart, ActivityType type, long count, long duration, long calories) {
+        return ActivityRollup.builder()
+                .id(ActivityRollup.idOf(USER, RollupGranularity.WEEK, bucketStart, type))
+                .userId(USER)
+                .granularity(RollupGranularity.WEEK)
+                .bucketStart(bucketStart)
+                .activityType(type)
+                .count(count)
+                .totalDuration(duration)
+                .totalCalories(calories)
+                .build();
+    }
+}
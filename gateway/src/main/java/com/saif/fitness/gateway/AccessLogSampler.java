@@ -0,0 +1,48 @@
+package com.saif.fitness.gateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which requests get an access-log line.
+ *
+ * Successful requests are sampled at {@code sample-rate}; errors (5xx or a
+ * failed exchange) are always candidates. Either way at most
+ * {@code max-per-second} lines are written, so a traffic spike or an outage
+ * cannot turn logging into the gateway's main CPU cost.
+ */
+@Component
+public class AccessLogSampler {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final double sampleRate;
+    private final int maxPerSecond;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger writtenInWindow = new AtomicInteger();
+
+    public AccessLogSampler(
+            @Value("${gateway.access-log.sample-rate:0.01}") double sampleRate,
+            @Value("${gateway.access-log.max-per-second:20}") int maxPerSecond) {
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public boolean shouldLog(boolean error) {
+        if (!error && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            writtenInWindow.set(0);
+        }
+        return writtenInWindow.incrementAndGet() <= maxPerSecond;
+    }
+}
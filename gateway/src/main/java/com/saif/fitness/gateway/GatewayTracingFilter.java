@@ -1,36 +1,115 @@
 package com.saif.fitness.gateway;
 
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every request in the {@code gateway.requests} timer, tagged by route,
+ * method and status, with a percentile histogram so Prometheus can compute
+ * p50/p99 per route. Access-log lines go to the "gateway.access" logger
+ * (async appender, see logback-spring.xml) only when {@link AccessLogSampler}
+ * picks the request.
+ *
+ * Runs ahead of the Spring Security chain, so the timings include JWT decoding
+ * and KeycloakUserSyncFilter, and rejected requests (401, route "none") are
+ * recorded too. A request the client cancelled is tagged 499, whatever status
+ * had been set by then.
+ */
 @Component
-@Order(Ordered.LOWEST_PRECEDENCE)   // VERY IMPORTANT
-@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class GatewayTracingFilter implements WebFilter {
 
+    private static final Logger accessLog = LoggerFactory.getLogger("gateway.access");
+    private static final String NO_ROUTE = "none";
+    private static final HttpMethod[] STANDARD_METHODS = HttpMethod.values();
+    private static final String OTHER_METHOD = "OTHER";
+    /** nginx's "client closed request". */
+    private static final int CLIENT_CLOSED = 499;
+
+    private final MeterRegistry meterRegistry;
+    private final AccessLogSampler accessLogSampler;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public GatewayTracingFilter(MeterRegistry meterRegistry, AccessLogSampler accessLogSampler) {
+        this.meterRegistry = meterRegistry;
+        this.accessLogSampler = accessLogSampler;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, System.nanoTime() - start));
+    }
 
+    private void record(ServerWebExchange exchange, SignalType signal, long elapsedNanos) {
         ServerHttpRequest req = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : NO_ROUTE;
+        int status = statusOf(exchange, signal);
 
-        log.info("TRACE-1 [BEFORE ROUTE] Incoming: {} {}", 
-                req.getMethod(), req.getURI());
+        timers.computeIfAbsent(new TimerKey(routeId, methodTag(req.getMethod()), status), this::newTimer)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
 
-        return chain.filter(exchange)
-                .doOnSuccess(aVoid -> {
-                    log.info("TRACE-2 [AFTER ROUTE] Completed for: {} {}", 
-                            req.getMethod(), req.getURI());
-                })
-                .doOnError(err -> {
-                    log.error("TRACE-3 [ERROR] on: {} {} -> {}",
-                            req.getMethod(), req.getURI(), err.getMessage());
-                });
+        boolean error = status >= 500 || signal == SignalType.ON_ERROR;
+        if (accessLog.isInfoEnabled() && accessLogSampler.shouldLog(error)) {
+            accessLog.info("{} {} route={} status={} {}ms",
+                    req.getMethod(), req.getURI().getRawPath(), routeId, status,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private static int statusOf(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return CLIENT_CLOSED;
+        }
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        return signal == SignalType.ON_ERROR ? 500 : 200;
+    }
+
+    /** Netty accepts any token as a method: anything non-standard shares one series. */
+    private static String methodTag(HttpMethod method) {
+        for (HttpMethod standard : STANDARD_METHODS) {
+            if (standard.equals(method)) {
+                return standard.name();
+            }
+        }
+        return OTHER_METHOD;
+    }
+
+    private Timer newTimer(TimerKey key) {
+        return Timer.builder("gateway.requests")
+                .description("Gateway request latency by route and status")
+                .tag("route", key.routeId())
+                .tag("method", key.method())
+                .tag("status", Integer.toString(key.status()))
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String routeId, String method, int status) {
     }
 }
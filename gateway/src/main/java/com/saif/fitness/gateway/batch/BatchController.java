@@ -0,0 +1,70 @@
+package com.saif.fitness.gateway.batch;
+
+import com.saif.fitness.gateway.ratelimit.RateLimiterRegistry;
+import com.saif.fitness.gateway.ratelimit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multiplexes many small calls into one round trip for reconnecting mobile clients.
+ * POST /api/batch [{"id":"1","path":"/api/activities/abc"}, {"id":"2","method":"POST","path":"/api/activities","body":{...}}]
+ * → {"responses":[{"id":"1","status":200,"headers":{...},"body":{...}}, ...]}
+ * A batch takes one token from its own per-user bucket (gateway.batch.rate-limit,
+ * 429 + Retry-After when empty); see {@link BatchService} for why its sub-requests
+ * do not also go through the routes' UserRateLimit.
+ */
+@RestController
+@RequestMapping(BatchService.BATCH_PATH)
+public class BatchController {
+
+    private final BatchService batchService;
+    private final int maxRequests;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public BatchController(BatchService batchService,
+                           RateLimiterRegistry rateLimiterRegistry,
+                           @Value("${gateway.batch.max-requests:50}") int maxRequests,
+                           @Value("${gateway.batch.rate-limit.replenish-rate:0.2}") double replenishRate,
+                           @Value("${gateway.batch.rate-limit.burst-capacity:3}") int burstCapacity) {
+        this.batchService = batchService;
+        this.maxRequests = maxRequests;
+        this.rateLimiter = rateLimiterRegistry.standaloneLimiter("batch", replenishRate, burstCapacity);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BatchResponse>> batch(@RequestBody List<BatchRequest> requests,
+                                                     ServerWebExchange exchange) {
+        if (requests.isEmpty() || requests.size() > maxRequests) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .flatMap(user -> {
+                    long waitNanos = rateLimiter.tryAcquire(user, System.nanoTime());
+                    if (waitNanos > 0) {
+                        return Mono.just(throttled(waitNanos));
+                    }
+                    return batchService.execute(exchange, requests)
+                            .map(ResponseEntity::ok);
+                });
+    }
+
+    private static ResponseEntity<BatchResponse> throttled(long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.saif.fitness.gateway.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * One call inside a batch, e.g.
+ * {"id":"3","method":"POST","path":"/api/activities","body":{...}}.
+ * The path may carry a query string; Authorization and X-User-ID always come
+ * from the batch request itself.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    private String id;
+    @Builder.Default
+    private String method = "GET";
+    private String path;
+    private Map<String, String> headers;
+    private JsonNode body;
+}
@@ -0,0 +1,17 @@
+package com.saif.fitness.gateway.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Results in the order the sub-requests were sent. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+    private List<BatchResult> responses;
+}
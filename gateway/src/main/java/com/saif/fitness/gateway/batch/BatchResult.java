@@ -0,0 +1,27 @@
+package com.saif.fitness.gateway.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of one {@link BatchRequest}. A JSON response body is embedded as is,
+ * anything else as a JSON string; {@code body} holds the encoded JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    private String id;
+    private int status;
+    private Map<String, String> headers;
+    @JsonRawValue
+    private String body;
+}
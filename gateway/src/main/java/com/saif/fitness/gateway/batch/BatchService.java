@@ -0,0 +1,243 @@
+package com.saif.fitness.gateway.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.io.JsonStringEncoder;
+import tools.jackson.core.json.JsonFactory;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs batch sub-requests in-process through the gateway's own
+ * {@link DispatcherHandler}, so each one goes through the route table, the
+ * route filters (rate limit, cache, breakers...) and the annotated controllers
+ * exactly like a standalone call. The web filters (JWT verification,
+ * KeycloakUserSyncFilter, tracing) already ran once for the batch and are not
+ * repeated; sub-requests inherit its principal, Authorization and X-User-ID.
+ *
+ * Rate limiting: sub-requests carry {@link #SUB_REQUEST_ATTR} and pass the routes'
+ * UserRateLimit without taking a token. Charged one token each, a reconnect batch
+ * of dozens of calls to one route would mostly come back as per-item 429s (bursts
+ * are 10-20). The batch as a whole is limited instead, one token per batch from its
+ * own bucket in {@link BatchController}; at most concurrency sub-requests of a batch
+ * are in flight, and AdaptiveConcurrency and the bulkheads still apply to each.
+ */
+@Service
+@Slf4j
+public class BatchService {
+
+    static final String BATCH_PATH = "/api/batch";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** Exchange attribute marking a batch sub-request; exempts it from UserRateLimit. */
+    public static final String SUB_REQUEST_ATTR = BatchService.class.getName() + ".subRequest";
+
+    private static final List<String> INHERITED_HEADERS =
+            List.of(HttpHeaders.AUTHORIZATION, "X-User-ID", HttpHeaders.ACCEPT_LANGUAGE);
+    private static final Set<String> PROTECTED_HEADERS = Set.of(
+            HttpHeaders.AUTHORIZATION.toLowerCase(), "x-user-id", HttpHeaders.HOST.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase());
+    private static final Set<String> DROPPED_RESPONSE_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(), HttpHeaders.SET_COOKIE.toLowerCase());
+
+    private final ObjectProvider<DispatcherHandler> dispatcherHandler;
+    private final ServerCodecConfigurer codecConfigurer;
+    private final int concurrency;
+    private final long maxResponseBytes;
+
+    public BatchService(
+            ObjectProvider<DispatcherHandler> dispatcherHandler,
+            ServerCodecConfigurer codecConfigurer,
+            @Value("${gateway.batch.concurrency:8}") int concurrency,
+            @Value("${gateway.batch.max-response-size:1MB}") DataSize maxResponseSize) {
+        this.dispatcherHandler = dispatcherHandler;
+        this.codecConfigurer = codecConfigurer;
+        this.concurrency = concurrency;
+        this.maxResponseBytes = maxResponseSize.toBytes();
+    }
+
+    public Mono<BatchResponse> execute(ServerWebExchange batch, List<BatchRequest> requests) {
+        return Flux.fromIterable(requests)
+                .flatMapSequential(request -> execute(batch, request), concurrency)
+                .collectList()
+                .map(results -> BatchResponse.builder().responses(results).build());
+    }
+
+    private Mono<BatchResult> execute(ServerWebExchange batch, BatchRequest request) {
+        URI uri;
+        HttpMethod method;
+        try {
+            uri = resolve(batch, request.getPath());
+            method = HttpMethod.valueOf(request.getMethod().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Mono.just(error(request, HttpStatus.BAD_REQUEST, "Invalid sub-request: " + e.getMessage()));
+        }
+
+        byte[] body = request.getBody() == null ? null : request.getBody().toString().getBytes(StandardCharsets.UTF_8);
+        ServerHttpRequest subRequest = subRequest(batch, request, method, uri, body);
+        BufferedServerHttpResponse subResponse =
+                new BufferedServerHttpResponse(batch.getResponse().bufferFactory(), maxResponseBytes);
+        ServerWebExchange subExchange = new DefaultServerWebExchange(subRequest, subResponse,
+                new DefaultWebSessionManager(), codecConfigurer, new AcceptHeaderLocaleContextResolver())
+                .mutate()
+                .principal(batch.getPrincipal())
+                .build();
+        subExchange.getAttributes().put(SUB_REQUEST_ATTR, Boolean.TRUE);
+
+        return dispatcherHandler.getObject().handle(subExchange)
+                .then(Mono.defer(subResponse::setComplete))
+                .then(Mono.fromSupplier(() -> result(request, subResponse)))
+                .onErrorResume(e -> {
+                    if (e instanceof ResponseStatusException statusException) {
+                        return Mono.just(error(request, statusException.getStatusCode().value(), statusException.getReason()));
+                    }
+                    log.warn("Batch sub-request {} {} failed: {}", method, uri.getRawPath(), e.toString());
+                    return Mono.just(error(request, HttpStatus.BAD_GATEWAY, "Sub-request failed"));
+                });
+    }
+
+    /** Only relative /api/** paths, and no nested batches. */
+    private static URI resolve(ServerWebExchange batch, String path) {
+        if (path == null || !path.startsWith("/") || path.startsWith("//")) {
+            throw new IllegalArgumentException("path must be relative, e.g. /api/activities");
+        }
+        URI uri = batch.getRequest().getURI().resolve(path);
+        String rawPath = uri.getRawPath();
+        if (!rawPath.startsWith("/api/") || rawPath.startsWith(BATCH_PATH)) {
+            throw new IllegalArgumentException("path not allowed in a batch: " + rawPath);
+        }
+        return uri;
+    }
+
+    private static ServerHttpRequest subRequest(ServerWebExchange batch, BatchRequest request,
+                                                HttpMethod method, URI uri, byte[] body) {
+        HttpHeaders batchHeaders = batch.getRequest().getHeaders();
+        ServerHttpRequest mutated = batch.getRequest().mutate()
+                .method(method)
+                .uri(uri)
+                .headers(headers -> {
+                    headers.clear();
+                    INHERITED_HEADERS.forEach(name -> {
+                        List<String> values = batchHeaders.get(name);
+                        if (values != null) {
+                            headers.put(name, values);
+                        }
+                    });
+                    if (request.getHeaders() != null) {
+                        request.getHeaders().forEach((name, value) -> {
+                            if (!PROTECTED_HEADERS.contains(name.toLowerCase())) {
+                                headers.set(name, value);
+                            }
+                        });
+                    }
+                    if (body != null) {
+                        if (headers.getContentType() == null) {
+                            headers.setContentType(MediaType.APPLICATION_JSON);
+                        }
+                        headers.setContentLength(body.length);
+                    }
+                })
+                .build();
+
+        return new ServerHttpRequestDecorator(mutated) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body == null ? Flux.empty() : Flux.just(batch.getResponse().bufferFactory().wrap(body));
+            }
+        };
+    }
+
+    private static BatchResult result(BatchRequest request, BufferedServerHttpResponse response) {
+        if (response.truncated()) {
+            return error(request, HttpStatus.INSUFFICIENT_STORAGE, "Response too large for a batch");
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        response.getHeaders().forEach((name, values) -> {
+            if (!DROPPED_RESPONSE_HEADERS.contains(name.toLowerCase()) && !values.isEmpty()) {
+                headers.put(name, values.getFirst());
+            }
+        });
+
+        int status = response.getStatusCode() == null ? HttpStatus.OK.value() : response.getStatusCode().value();
+        return BatchResult.builder()
+                .id(request.getId())
+                .status(status)
+                .headers(headers)
+                .body(encodeBody(response.getHeaders().getContentType(), response.body()))
+                .build();
+    }
+
+    private static String encodeBody(MediaType contentType, byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        boolean json = contentType != null && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || "json".equals(contentType.getSubtypeSuffix()));
+        return json && isSingleJsonValue(body) ? text : jsonString(text);
+    }
+
+    /**
+     * Embedded raw, a truncated or mislabelled body (an HTML error page sent as
+     * application/json) would break the whole envelope: skim it first.
+     */
+    private static boolean isSingleJsonValue(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(ObjectReadContext.empty(), body)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (JacksonException e) {
+            return false;
+        }
+    }
+
+    private static BatchResult error(BatchRequest request, HttpStatus status, String message) {
+        return error(request, status.value(), message);
+    }
+
+    private static BatchResult error(BatchRequest request, int status, String message) {
+        return BatchResult.builder()
+                .id(request.getId())
+                .status(status)
+                .body(message == null ? null : "{\"message\":" + jsonString(message) + "}")
+                .build();
+    }
+
+    private static String jsonString(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        JsonStringEncoder.getInstance().quoteAsString(text, quoted);
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.saif.fitness.gateway.batch;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * In-memory response for a batch sub-request. Keeps at most {@code maxBytes}
+ * of body; anything beyond that is dropped and flagged as truncated.
+ */
+final class BufferedServerHttpResponse extends AbstractServerHttpResponse {
+
+    private final long maxBytes;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private boolean truncated;
+
+    BufferedServerHttpResponse(DataBufferFactory bufferFactory, long maxBytes) {
+        super(bufferFactory);
+        this.maxBytes = maxBytes;
+    }
+
+    byte[] body() {
+        return body.toByteArray();
+    }
+
+    boolean truncated() {
+        return truncated;
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+        return Flux.from(body).doOnNext(this::append).then();
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return Flux.from(body).concatMap(Flux::from).doOnNext(this::append).then();
+    }
+
+    private void append(DataBuffer buffer) {
+        try {
+            int length = buffer.readableByteCount();
+            if (truncated || this.body.size() + length > maxBytes) {
+                truncated = true;
+                return;
+            }
+            byte[] chunk = new byte[length];
+            buffer.read(chunk);
+            this.body.writeBytes(chunk);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+
+    @Override
+    public <T> T getNativeResponse() {
+        throw new IllegalStateException("Batch sub-responses have no native response");
+    }
+}
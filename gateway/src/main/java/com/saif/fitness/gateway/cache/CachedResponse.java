@@ -0,0 +1,24 @@
+package com.saif.fitness.gateway.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A buffered 200 response held by {@link UserResponseCacheGatewayFilterFactory}.
+ * {@code revalidating} makes sure a stale entry triggers at most one background
+ * refresh at a time.
+ */
+record CachedResponse(byte[] body, String contentType, String etag, long storedAtNanos,
+                      AtomicBoolean revalidating) {
+
+    CachedResponse(byte[] body, String contentType, String etag, long storedAtNanos) {
+        this(body, contentType, etag, storedAtNanos, new AtomicBoolean());
+    }
+
+    long ageNanos(long nowNanos) {
+        return nowNanos - storedAtNanos;
+    }
+
+    int weight() {
+        return body.length + etag.length() + (contentType == null ? 0 : contentType.length());
+    }
+}
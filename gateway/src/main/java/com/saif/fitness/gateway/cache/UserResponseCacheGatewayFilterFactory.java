@@ -0,0 +1,326 @@
+package com.saif.fitness.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user GET response cache with ETags and stale-while-revalidate.
+ * Usage in gateway-service.yml:
+ * <pre>
+ * filters:
+ *   - name: UserResponseCache
+ *     args:
+ *       paths: "/api/activities/{activityId:[0-9a-f]{24}}"   # optional, default: every GET on the route
+ *       ttl: PT1M                                            # served as fresh
+ *       stale-while-revalidate: PT5M                         # served stale, refreshed in background
+ *       max-size: 16MB                                       # total bytes held for the route
+ *       max-entry-size: 256KB
+ * </pre>
+ *
+ * Design decisions:
+ *  - Keyed by JWT sub + path + query, so one user never sees another's data;
+ *    anonymous requests are not cached.
+ *  - Only 200 responses with a known Content-Length up to max-entry-size are
+ *    buffered; anything else (chunked exports, errors, no-store) streams
+ *    through untouched.
+ *  - Every cached response carries a strong ETag; a matching If-None-Match is
+ *    answered with 304 and no body, even on a miss.
+ *  - Revalidation re-fetches through the load-balanced WebClient (lb:// routes)
+ *    off the request path; a failed refresh keeps serving the stale entry
+ *    until stale-while-revalidate runs out.
+ *  - Hit/miss/eviction stats are published as "cache.*" meters,
+ *    name=gateway-response-{routeId}.
+ */
+@Component
+@Slf4j
+public class UserResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<UserResponseCacheGatewayFilterFactory.Config> {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final String PRIVATE_REVALIDATE = "private, no-cache";
+    private static final List<String> FORWARDED_HEADERS =
+            List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT, "X-User-ID");
+
+    private final WebClient revalidationClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteCache> routeCaches = new ConcurrentHashMap<>();
+
+    public UserResponseCacheGatewayFilterFactory(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.revalidationClient = webClientBuilder.clone().build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Cache<String, CachedResponse> cache = cacheFor(config);
+        List<PathPattern> paths = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        long ttlNanos = config.getTtl().toNanos();
+        long staleNanos = ttlNanos + config.getStaleWhileRevalidate().toNanos();
+        long maxEntryBytes = config.getMaxEntrySize().toBytes();
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !matches(paths, request)) {
+                return chain.filter(exchange);
+            }
+
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty("")
+                    .flatMap(user -> {
+                        if (user.isEmpty()) {
+                            return chain.filter(exchange);
+                        }
+                        String key = user + ' ' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery();
+
+                        CachedResponse cached = cache.getIfPresent(key);
+                        if (cached != null) {
+                            long age = cached.ageNanos(System.nanoTime());
+                            if (age < ttlNanos) {
+                                return writeCached(exchange, cached, "HIT");
+                            }
+                            if (age < staleNanos) {
+                                revalidate(exchange, cache, key, cached, maxEntryBytes);
+                                return writeCached(exchange, cached, "STALE");
+                            }
+                        }
+
+                        ServerHttpResponse capturing = new CapturingResponse(exchange, cache, key, maxEntryBytes);
+                        return chain.filter(exchange.mutate().response(capturing).build());
+                    });
+        };
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(PRIVATE_REVALIDATE);
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void revalidate(ServerWebExchange exchange, Cache<String, CachedResponse> cache, String key,
+                            CachedResponse stale, long maxEntryBytes) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !stale.revalidating().compareAndSet(false, true)) {
+            return;
+        }
+
+        URI routeUri = route.getUri();
+        URI uri = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                .scheme("lb".equals(routeUri.getScheme()) ? "http" : routeUri.getScheme())
+                .host(routeUri.getHost())
+                .port(routeUri.getPort())
+                .build(true)
+                .toUri();
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+
+        revalidationClient.get()
+                .uri(uri)
+                .headers(headers -> FORWARDED_HEADERS.forEach(name -> {
+                    List<String> values = requestHeaders.get(name);
+                    if (values != null) {
+                        headers.put(name, values);
+                    }
+                }))
+                .retrieve()
+                .toEntity(byte[].class)
+                .subscribe(
+                        entity -> {
+                            if (!store(cache, key, entity, maxEntryBytes)) {
+                                stale.revalidating().set(false);
+                            }
+                        },
+                        error -> {
+                            log.debug("Revalidation failed for {}: {}", uri, error.toString());
+                            stale.revalidating().set(false);
+                        });
+    }
+
+    private static boolean store(Cache<String, CachedResponse> cache, String key,
+                                 ResponseEntity<byte[]> entity, long maxEntryBytes) {
+        byte[] body = entity.getBody();
+        if (!entity.getStatusCode().isSameCodeAs(HttpStatus.OK) || body == null
+                || body.length > maxEntryBytes || notStorable(entity.getHeaders())) {
+            return false;
+        }
+        MediaType contentType = entity.getHeaders().getContentType();
+        cache.put(key, new CachedResponse(body, contentType == null ? null : contentType.toString(),
+                etagOf(body), System.nanoTime()));
+        return true;
+    }
+
+    /** Buffers a cacheable downstream 200, stores it, and answers 304 if the client already has it. */
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final Cache<String, CachedResponse> cache;
+        private final String key;
+        private final long maxEntryBytes;
+
+        CapturingResponse(ServerWebExchange exchange, Cache<String, CachedResponse> cache, String key,
+                          long maxEntryBytes) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.cache = cache;
+            this.key = key;
+            this.maxEntryBytes = maxEntryBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            if (!HttpStatus.OK.isSameCodeAs(getStatusCode()) || contentLength < 0
+                    || contentLength > maxEntryBytes || notStorable(headers)) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                String etag = etagOf(bytes);
+                MediaType contentType = headers.getContentType();
+                cache.put(key, new CachedResponse(bytes, contentType == null ? null : contentType.toString(),
+                        etag, System.nanoTime()));
+
+                headers.setETag(etag);
+                headers.setCacheControl(PRIVATE_REVALIDATE);
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+                if (notModified(request, etag)) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+
+    private static boolean matches(List<PathPattern> paths, ServerHttpRequest request) {
+        if (paths.isEmpty()) {
+            return true;
+        }
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** If-None-Match uses weak comparison, so a W/ prefix added further down the chain still matches. */
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if (candidate.equals("*") || opaqueTag(candidate).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean notStorable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return (cacheControl != null && cacheControl.contains("no-store"))
+                || headers.containsHeader(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Cache<String, CachedResponse> cacheFor(Config config) {
+        return routeCaches.compute(config.getRouteId(), (routeId, existing) -> {
+            if (existing != null && existing.config().equals(config)) {
+                return existing;
+            }
+            Cache<String, CachedResponse> cache = Caffeine.newBuilder()
+                    .maximumWeight(config.getMaxSize().toBytes())
+                    .weigher((String key, CachedResponse value) -> key.length() + value.weight())
+                    .expireAfterWrite(config.getTtl().plus(config.getStaleWhileRevalidate()))
+                    .recordStats()
+                    .build();
+            // no extra tag: Prometheus rejects cache.* meters whose tag keys differ from user-sync's
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-response-" + routeId);
+            return new RouteCache(config, cache);
+        }).cache();
+    }
+
+    private record RouteCache(Config config, Cache<String, CachedResponse> cache) {
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private List<String> paths = List.of();
+        private Duration ttl = Duration.ofMinutes(1);
+        private Duration staleWhileRevalidate = Duration.ofMinutes(5);
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+        private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+    }
+}
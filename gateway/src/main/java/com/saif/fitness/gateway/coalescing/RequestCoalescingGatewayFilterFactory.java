@@ -0,0 +1,213 @@
+package com.saif.fitness.gateway.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight for identical GETs: while one request for a user + path + query
+ * is on its way downstream, identical requests wait for it and get its
+ * response replayed instead of making their own call.
+ * Usage in gateway-service.yml:
+ * <pre>
+ * filters:
+ *   - name: RequestCoalescing
+ *     args:
+ *       max-body-size: 1MB   # larger responses are not shared
+ * </pre>
+ *
+ * Design decisions:
+ *  - Only requests already in flight are shared; nothing is kept once the
+ *    leader completes (that is the response cache's job).
+ *  - The leader streams its own response as usual, holding back at most
+ *    max-body-size bytes; past that the flight is released and waiters go
+ *    downstream themselves. Leader errors, cancellations and non-2xx responses
+ *    (5xx, 429, and 304, which only matches the leader's own If-None-Match) do
+ *    the same, so one failed call never fails the whole group.
+ *  - Meter gateway.coalescing.requests{route, outcome=leader|coalesced|fallthrough};
+ *    coalescing ratio = coalesced / (leader + coalesced).
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+        long maxBodyBytes = config.getMaxBodySize().toBytes();
+        Counter leaders = counter(config.getRouteId(), "leader");
+        Counter coalesced = counter(config.getRouteId(), "coalesced");
+        Counter fallthrough = counter(config.getRouteId(), "fallthrough");
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty("")
+                    .flatMap(user -> {
+                        if (user.isEmpty()) {
+                            return chain.filter(exchange);
+                        }
+                        String key = user + ' ' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                                + ' ' + request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+
+                        Flight flight = new Flight();
+                        Flight existing = inFlight.putIfAbsent(key, flight);
+                        if (existing != null) {
+                            return existing.response().flatMap(shared -> {
+                                if (shared == SharedResponse.NONE) {
+                                    fallthrough.increment();
+                                    return chain.filter(exchange);
+                                }
+                                coalesced.increment();
+                                return replay(exchange.getResponse(), shared);
+                            });
+                        }
+
+                        leaders.increment();
+                        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), flight, maxBodyBytes);
+                        return chain.filter(exchange.mutate().response(capturing).build())
+                                .doFinally(signal -> {
+                                    inFlight.remove(key, flight);
+                                    flight.publish(SharedResponse.NONE);
+                                });
+                    });
+        };
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("GET requests by single-flight outcome")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        static final SharedResponse NONE = new SharedResponse(null, null, null);
+    }
+
+    /** The leader's outcome; the first publish wins. */
+    private static final class Flight {
+
+        private final Sinks.One<SharedResponse> sink = Sinks.one();
+
+        Mono<SharedResponse> response() {
+            return sink.asMono();
+        }
+
+        void publish(SharedResponse response) {
+            sink.tryEmitValue(response);
+        }
+    }
+
+    /** Passes the leader's body through while keeping a copy of it, up to the size limit. */
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final Flight flight;
+        private final long maxBodyBytes;
+
+        CapturingResponse(ServerHttpResponse delegate, Flight flight, long maxBodyBytes) {
+            super(delegate);
+            this.flight = flight;
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            ByteArrayOutputStream held = new ByteArrayOutputStream();
+            boolean[] overflowed = {false};
+
+            Flux<DataBuffer> passed = Flux.from(body)
+                    .concatMapIterable(buffer -> {
+                        if (overflowed[0]) {
+                            return List.of(buffer);
+                        }
+                        if (held.size() + buffer.readableByteCount() > maxBodyBytes) {
+                            overflowed[0] = true;
+                            flight.publish(SharedResponse.NONE);
+                            return List.of(bufferFactory().wrap(held.toByteArray()), buffer);
+                        }
+                        byte[] chunk = new byte[buffer.readableByteCount()];
+                        buffer.read(chunk);
+                        DataBufferUtils.release(buffer);
+                        held.writeBytes(chunk);
+                        return List.of();
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        if (overflowed[0]) {
+                            return Flux.empty();
+                        }
+                        byte[] bytes = held.toByteArray();
+                        flight.publish(snapshot(bytes));
+                        return Flux.just(bufferFactory().wrap(bytes));
+                    }));
+            return super.writeWith(passed);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            flight.publish(snapshot(new byte[0]));
+            return super.setComplete();
+        }
+
+        private SharedResponse snapshot(byte[] body) {
+            HttpStatusCode status = getStatusCode();
+            if (status != null && !status.is2xxSuccessful()) {
+                return SharedResponse.NONE;
+            }
+            HttpHeaders headers = HttpHeaders.copyOf(getHeaders());
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            return new SharedResponse(status, headers, body);
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.saif.fitness.gateway.concurrency;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds load early with 503 when the downstream's adaptive concurrency limit
+ * is reached. Usage in gateway-service.yml:
+ * <pre>
+ * filters:
+ *   - name: AdaptiveConcurrency
+ *     args:
+ *       priority: true   # auth lane: may use the reserved share of the limit
+ * </pre>
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private final ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+
+    public AdaptiveConcurrencyGatewayFilterFactory(ConcurrencyLimiterRegistry concurrencyLimiterRegistry) {
+        super(Config.class);
+        this.concurrencyLimiterRegistry = concurrencyLimiterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (route == null) {
+                return chain.filter(exchange);
+            }
+            String downstream = route.getUri().getHost() != null ? route.getUri().getHost() : route.getId();
+            AdaptiveConcurrencyLimiter limiter = concurrencyLimiterRegistry.limiterFor(downstream);
+
+            if (!limiter.tryAcquire(config.isPriority())) {
+                concurrencyLimiterRegistry.recordShed(downstream);
+                return shed(exchange.getResponse());
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limiter.release(-1, false);
+                            return;
+                        }
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean dropped = signal == SignalType.ON_ERROR
+                                || (status != null && (HttpStatus.SERVICE_UNAVAILABLE.isSameCodeAs(status)
+                                    || HttpStatus.GATEWAY_TIMEOUT.isSameCodeAs(status)));
+                        limiter.release(System.nanoTime() - start, dropped);
+                    });
+        };
+    }
+
+    private static Mono<Void> shed(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    @Data
+    public static class Config {
+        private boolean priority;
+    }
+}
@@ -0,0 +1,113 @@
+package com.saif.fitness.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vegas-style adaptive concurrency limit for one downstream service.
+ *
+ * The limit is compared against the queue the gateway is building up at the
+ * downstream, estimated from RTT: {@code queue = limit * (1 - minRtt / rtt)}.
+ * A small queue means headroom (limit grows), a large one or a dropped
+ * request (error/timeout/503) means the service is browning out (limit
+ * shrinks). Requests beyond the limit are rejected immediately instead of
+ * waiting for a connect/read timeout.
+ *
+ * A fraction of the limit is reserved for priority requests (auth), so users
+ * can still log in while the rest of the service is shedding.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int PROBE_EVERY_SAMPLES = 500;
+    private static final double SMOOTHING = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double reservedFraction;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // guarded by this
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double reservedFraction) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.reservedFraction = reservedFraction;
+    }
+
+    public boolean tryAcquire(boolean priority) {
+        int currentLimit = getLimit();
+        int allowed = priority ? currentLimit : Math.max(1, (int) (currentLimit * (1 - reservedFraction)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos time the request spent downstream, or a negative value if
+     *                 it was cancelled and should not be sampled
+     * @param dropped  the downstream failed, timed out or answered 503/504
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (rttNanos > 0 || dropped) {
+            onSample(rttNanos, inFlightBefore, dropped);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtSample, boolean dropped) {
+        double current = limit;
+        double step = Math.max(1, Math.log10(current));
+        double next;
+
+        if (dropped) {
+            next = current - step;
+        } else {
+            if (++samplesSinceProbe >= PROBE_EVERY_SAMPLES) {
+                // let the baseline follow the service after a deploy or a slow-start
+                samplesSinceProbe = 0;
+                minRttNanos = rttNanos;
+            } else if (rttNanos < minRttNanos) {
+                minRttNanos = rttNanos;
+            }
+
+            if (inFlightAtSample * 2 < current) {
+                // not using the limit we have; no evidence to grow it
+                return;
+            }
+
+            double queue = Math.ceil(current * (1 - (double) minRttNanos / rttNanos));
+            double alpha = 3 * step;
+            double beta = 6 * step;
+            if (queue <= step) {
+                next = current + beta;
+            } else if (queue < alpha) {
+                next = current + step;
+            } else if (queue > beta) {
+                next = current - step;
+            } else {
+                return;
+            }
+        }
+
+        next = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = current * (1 - SMOOTHING) + next * SMOOTHING;
+    }
+}
@@ -0,0 +1,73 @@
+package com.saif.fitness.gateway.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per downstream service (lb:// host),
+ * shared by every route that targets it, so /api/auth/** and /api/users/**
+ * draw from the same USER-SERVICE budget.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final Map<String, Downstream> downstreams = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double reservedFraction;
+
+    public ConcurrencyLimiterRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${gateway.concurrency.min-limit:4}") int minLimit,
+            @Value("${gateway.concurrency.max-limit:200}") int maxLimit,
+            @Value("${gateway.concurrency.priority-reserved-fraction:0.2}") double reservedFraction) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.reservedFraction = reservedFraction;
+    }
+
+    public AdaptiveConcurrencyLimiter limiterFor(String downstream) {
+        return downstreamFor(downstream).limiter();
+    }
+
+    public void recordShed(String downstream) {
+        downstreamFor(downstream).shed().increment();
+    }
+
+    private Downstream downstreamFor(String downstream) {
+        Downstream existing = downstreams.get(downstream);
+        return existing != null ? existing : downstreams.computeIfAbsent(downstream, this::newDownstream);
+    }
+
+    private Downstream newDownstream(String downstream) {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, reservedFraction);
+
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Counter shed = Counter.builder("gateway.concurrency.shed")
+                .description("Requests rejected with 503 by the adaptive concurrency limit")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+
+        return new Downstream(limiter, shed);
+    }
+
+    private record Downstream(AdaptiveConcurrencyLimiter limiter, Counter shed) {
+    }
+}
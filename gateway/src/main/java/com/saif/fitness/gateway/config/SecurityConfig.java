@@ -1,6 +1,10 @@
 package com.saif.fitness.gateway.config;
 
+import com.saif.fitness.gateway.security.CachingReactiveJwtDecoder;
+import com.saif.fitness.gateway.security.JwkSetCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -9,6 +13,9 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebFluxSecurity
@@ -31,10 +38,37 @@ public class SecurityConfig {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "gateway.security.jwt.decoder-mode", havingValue = "nimbus", matchIfMissing = true)
     public ReactiveJwtDecoder reactiveJwtDecoder(
             @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri) {
 
         return NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build();
     }
 
+    /**
+     * decoder-mode=caching: keys are prefetched and refreshed off the request path,
+     * and tokens already verified are served from memory until they expire.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "gateway.security.jwt.decoder-mode", havingValue = "caching")
+    public JwkSetCache jwkSetCache(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri,
+            @Value("${gateway.security.jwt.jwks-refresh-interval:PT5M}") Duration refreshInterval,
+            @Value("${gateway.security.jwt.jwks-min-refetch-interval:PT30S}") Duration minRefetchInterval) {
+
+        // plain client: the Keycloak host is not in Eureka, so no @LoadBalanced builder here
+        return new JwkSetCache(WebClient.create(), jwkSetUri, refreshInterval, minRefetchInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.security.jwt.decoder-mode", havingValue = "caching")
+    public ReactiveJwtDecoder cachingReactiveJwtDecoder(
+            JwkSetCache jwkSetCache,
+            @Value("${gateway.security.jwt.token-cache-max-size:10000}") long tokenCacheMaxSize,
+            MeterRegistry meterRegistry) {
+
+        ReactiveJwtDecoder verifier = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::select).build();
+        return new CachingReactiveJwtDecoder(verifier, tokenCacheMaxSize, meterRegistry);
+    }
+
 }
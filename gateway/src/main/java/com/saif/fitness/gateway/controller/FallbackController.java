@@ -0,0 +1,118 @@
+package com.saif.fitness.gateway.controller;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Target of the CircuitBreaker route filter's fallbackUri (forward:/fallback/{breaker}).
+ * Answers immediately instead of waiting on a downstream that is open, saturated
+ * or too slow: an empty list where the app can render one (recommendation
+ * lists), 503 otherwise. Both carry Retry-After and are never cached.
+ */
+@RestController
+public class FallbackController {
+
+    private static final List<PathPattern> EMPTY_LIST_PATHS = List.of(
+            PathPatternParser.defaultInstance.parse("/api/recommendations/user/{userId}"));
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Map<String, OpenWindow> openWindows = new ConcurrentHashMap<>();
+
+    public FallbackController(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> track(event.getAddedEntry()))
+                .onEntryReplaced(event -> track(event.getNewEntry()));
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::track);
+    }
+
+    @RequestMapping("/fallback/{breaker}")
+    public Mono<ResponseEntity<Object>> fallback(@PathVariable String breaker, ServerWebExchange exchange) {
+        HttpStatus status = exchange.getRequest().getMethod() == HttpMethod.GET && emptyListPath(exchange)
+                ? HttpStatus.OK
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(breaker)))
+                .header("X-Fallback", breaker)
+                .cacheControl(CacheControl.noStore());
+
+        if (status == HttpStatus.OK) {
+            return Mono.just(response.body(List.of()));
+        }
+        return Mono.just(response.body(Map.of(
+                "status", status.value(),
+                "error", status.getReasonPhrase(),
+                "message", "Service temporarily unavailable, please retry later")));
+    }
+
+    /**
+     * Time left until an open breaker lets calls through again (rounded up), 1s
+     * once that is due, after a timeout or a full bulkhead.
+     */
+    private long retryAfterSeconds(String breaker) {
+        OpenWindow window = openWindows.get(breaker);
+        boolean open = circuitBreakerRegistry.find(breaker)
+                .map(cb -> cb.getState() == CircuitBreaker.State.OPEN)
+                .orElse(false);
+        if (window == null || !open) {
+            return 1;
+        }
+        long remainingNanos = window.untilNanos() - System.nanoTime();
+        return Math.max(1, (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void track(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> onStateTransition(circuitBreaker, event));
+    }
+
+    /** Records when the breaker opens and for how long, counting attempts the way its open state does. */
+    private void onStateTransition(CircuitBreaker circuitBreaker, CircuitBreakerOnStateTransitionEvent event) {
+        CircuitBreaker.State toState = event.getStateTransition().getToState();
+        if (toState == CircuitBreaker.State.OPEN) {
+            openWindows.compute(event.getCircuitBreakerName(), (name, previous) -> {
+                int attempt = event.getStateTransition().getFromState() == CircuitBreaker.State.HALF_OPEN
+                        && previous != null ? previous.attempt() + 1 : 1;
+                long waitMillis = circuitBreaker.getCircuitBreakerConfig()
+                        .getWaitIntervalFunctionInOpenState().apply(attempt);
+                return new OpenWindow(attempt, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis));
+            });
+        } else if (toState != CircuitBreaker.State.HALF_OPEN) {
+            openWindows.remove(event.getCircuitBreakerName());
+        }
+    }
+
+    private static boolean emptyListPath(ServerWebExchange exchange) {
+        Set<URI> originalUrls = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        if (originalUrls == null || originalUrls.isEmpty()) {
+            return false;
+        }
+        String path = originalUrls.iterator().next().getRawPath();
+        return EMPTY_LIST_PATHS.stream()
+                .anyMatch(pattern -> pattern.matches(PathContainer.parsePath(path)));
+    }
+
+    private record OpenWindow(int attempt, long untilNanos) {
+    }
+}
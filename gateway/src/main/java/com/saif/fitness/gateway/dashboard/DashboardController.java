@@ -0,0 +1,34 @@
+package com.saif.fitness.gateway.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gateway-side composition endpoint for the Android home screen.
+ * GET /api/dashboard?activitiesSize=10 → {"profile":..., "activities":[...], "recommendations":[...], "unavailable":[]}
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private static final int MAX_ACTIVITIES_SIZE = 50;
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    public Mono<ResponseEntity<DashboardResponse>> getDashboard(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "10") int activitiesSize) {
+        int size = Math.min(Math.max(activitiesSize, 1), MAX_ACTIVITIES_SIZE);
+        return dashboardService.getDashboard(jwt.getSubject(), size)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,25 @@
+package com.saif.fitness.gateway.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Home-screen document. Each section is passed through as the downstream
+ * service returned it; a section that failed or timed out is null and its
+ * name is listed in {@code unavailable}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    private JsonNode profile;
+    private JsonNode activities;
+    private JsonNode recommendations;
+    private List<String> unavailable;
+}
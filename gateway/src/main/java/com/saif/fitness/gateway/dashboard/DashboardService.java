@@ -0,0 +1,98 @@
+package com.saif.fitness.gateway.dashboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds the Android home screen in one round trip: profile, first page of
+ * activities and recommendations are fetched in parallel, each with its own
+ * timeout. A failing leg is left out instead of failing the whole response.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    static final String PROFILE = "profile";
+    static final String ACTIVITIES = "activities";
+    static final String RECOMMENDATIONS = "recommendations";
+
+    private final WebClient userServiceWebClient;
+    private final WebClient activityServiceWebClient;
+    private final WebClient aiServiceWebClient;
+    private final Duration profileTimeout;
+    private final Duration activitiesTimeout;
+    private final Duration recommendationsTimeout;
+
+    public DashboardService(
+            @Qualifier("userServiceWebClient") WebClient userServiceWebClient,
+            @Qualifier("activityServiceWebClient") WebClient activityServiceWebClient,
+            @Qualifier("aiServiceWebClient") WebClient aiServiceWebClient,
+            @Value("${gateway.dashboard.timeout.profile:PT2S}") Duration profileTimeout,
+            @Value("${gateway.dashboard.timeout.activities:PT3S}") Duration activitiesTimeout,
+            @Value("${gateway.dashboard.timeout.recommendations:PT3S}") Duration recommendationsTimeout) {
+        this.userServiceWebClient = userServiceWebClient;
+        this.activityServiceWebClient = activityServiceWebClient;
+        this.aiServiceWebClient = aiServiceWebClient;
+        this.profileTimeout = profileTimeout;
+        this.activitiesTimeout = activitiesTimeout;
+        this.recommendationsTimeout = recommendationsTimeout;
+    }
+
+    public Mono<DashboardResponse> getDashboard(String userId, int activitiesSize) {
+        Mono<Optional<JsonNode>> profile = leg(PROFILE, userId, profileTimeout,
+                userServiceWebClient.get()
+                        .uri("/api/users/{userId}", userId));
+
+        Mono<Optional<JsonNode>> activities = leg(ACTIVITIES, userId, activitiesTimeout,
+                activityServiceWebClient.get()
+                        .uri(uri -> uri.path("/api/activities")
+                                .queryParam("page", 0)
+                                .queryParam("size", activitiesSize)
+                                .queryParam("userId", userId)
+                                .build()));
+
+        Mono<Optional<JsonNode>> recommendations = leg(RECOMMENDATIONS, userId, recommendationsTimeout,
+                aiServiceWebClient.get()
+                        .uri("/api/recommendations/user/{userId}", userId));
+
+        return Mono.zip(profile, activities, recommendations)
+                .map(legs -> {
+                    List<String> unavailable = new ArrayList<>(3);
+                    if (legs.getT1().isEmpty()) unavailable.add(PROFILE);
+                    if (legs.getT2().isEmpty()) unavailable.add(ACTIVITIES);
+                    if (legs.getT3().isEmpty()) unavailable.add(RECOMMENDATIONS);
+
+                    return DashboardResponse.builder()
+                            .profile(legs.getT1().orElse(null))
+                            .activities(legs.getT2().orElse(null))
+                            .recommendations(legs.getT3().orElse(null))
+                            .unavailable(unavailable)
+                            .build();
+                });
+    }
+
+    private Mono<Optional<JsonNode>> leg(String name, String userId, Duration timeout,
+                                         WebClient.RequestHeadersSpec<?> request) {
+        return request
+                .header("X-User-ID", userId)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    log.warn("Dashboard leg '{}' failed for user {}: {}", name, userId, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+}
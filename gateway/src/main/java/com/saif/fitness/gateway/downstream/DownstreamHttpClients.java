@@ -0,0 +1,118 @@
+package com.saif.fitness.gateway.downstream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.server.autoconfigure.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One Reactor Netty {@link HttpClient} per downstream service id, each with its
+ * own {@link ConnectionProvider}. Everything else (timeouts, SSL, proxy, wiretap,
+ * customizers) comes from the gateway's spring.cloud.gateway httpclient settings,
+ * so routed and WebClient traffic behave the same.
+ *
+ * Pools publish Reactor Netty's Micrometer meters through the global registry,
+ * tagged name=downstream-{service}: reactor.netty.connection.provider.active.connections,
+ * .idle.connections, .pending.connections, .total.connections and the acquire
+ * timer .pending.connections.time.
+ */
+@Component
+@Slf4j
+public class DownstreamHttpClients {
+
+    private final DownstreamPoolProperties properties;
+    private final HttpClientProperties httpClientProperties;
+    private final ServerProperties serverProperties;
+    private final HttpClientSslConfigurer sslConfigurer;
+    private final List<HttpClientCustomizer> customizers;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public DownstreamHttpClients(DownstreamPoolProperties properties,
+                                 HttpClientProperties httpClientProperties,
+                                 ServerProperties serverProperties,
+                                 HttpClientSslConfigurer sslConfigurer,
+                                 List<HttpClientCustomizer> customizers) {
+        this.properties = properties;
+        this.httpClientProperties = httpClientProperties;
+        this.serverProperties = serverProperties;
+        this.sslConfigurer = sslConfigurer;
+        this.customizers = customizers;
+    }
+
+    public HttpClient forService(String serviceId) {
+        return clients.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), this::create);
+    }
+
+    private HttpClient create(String serviceId) {
+        DownstreamPoolProperties.Pool pool = poolFor(serviceId);
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("downstream-" + serviceId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true);
+        ConnectionProvider provider = (pool.isLifo() ? builder.lifo() : builder.fifo()).build();
+        providers.put(serviceId, provider);
+
+        HttpClient client = new PooledClientFactory(httpClientProperties, serverProperties, sslConfigurer, customizers, provider)
+                .create();
+        if (pool.isH2c()) {
+            client = client.protocol(HttpProtocol.H2C);
+        }
+        log.info("Downstream pool for {}: max {} connections, {} pending, {}{}", serviceId,
+                pool.getMaxConnections(), pool.getPendingAcquireMaxCount(),
+                pool.isLifo() ? "LIFO" : "FIFO", pool.isH2c() ? ", h2c" : "");
+        return client;
+    }
+
+    private DownstreamPoolProperties.Pool poolFor(String serviceId) {
+        for (Map.Entry<String, DownstreamPoolProperties.Pool> entry : properties.getServices().entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(serviceId)) {
+                return entry.getValue();
+            }
+        }
+        return properties.getDefaults();
+    }
+
+    @PreDestroy
+    public void dispose() {
+        providers.values().forEach(provider -> provider.disposeLater().block());
+    }
+
+    /** The gateway's own HttpClient recipe, on top of a given pool. */
+    private static final class PooledClientFactory extends HttpClientFactory {
+
+        private final ConnectionProvider provider;
+
+        PooledClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                            HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                            ConnectionProvider provider) {
+            super(properties, serverProperties, sslConfigurer, customizers);
+            this.provider = provider;
+        }
+
+        HttpClient create() {
+            return createInstance();
+        }
+
+        @Override
+        protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+            return provider;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.saif.fitness.gateway.downstream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DownstreamPoolProperties.class)
+public class DownstreamPoolConfig {
+
+    @Bean
+    public DownstreamRoutingFilter downstreamRoutingFilter(
+            HttpClient httpClient,
+            ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+            HttpClientProperties properties,
+            DownstreamHttpClients downstreamHttpClients) {
+        return new DownstreamRoutingFilter(httpClient, headersFilters, properties, downstreamHttpClients);
+    }
+}
@@ -0,0 +1,47 @@
+package com.saif.fitness.gateway.downstream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool per downstream service, keyed by lower-case service id.
+ * <pre>
+ * gateway:
+ *   downstream:
+ *     defaults:
+ *       max-connections: 50
+ *     services:
+ *       ai-service:
+ *         max-connections: 20
+ *         h2c: true
+ * </pre>
+ * A service entry replaces the defaults as a whole; unset fields fall back to
+ * the values below, not to {@code defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.downstream")
+public class DownstreamPoolProperties {
+
+    private Pool defaults = new Pool();
+    private Map<String, Pool> services = new HashMap<>();
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 50;
+        /** Callers allowed to wait for a connection; beyond that acquisition fails fast. */
+        private int pendingAcquireMaxCount = 100;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        /** Below Render's proxy idle timeout, so we close before the proxy does. */
+        private Duration maxIdleTime = Duration.ofSeconds(20);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        /** LIFO keeps a few hot connections busy and lets the rest idle out. */
+        private boolean lifo = true;
+        /** Cleartext HTTP/2 with prior knowledge; the service needs server.http2.enabled=true. */
+        private boolean h2c;
+    }
+}
@@ -0,0 +1,54 @@
+package com.saif.fitness.gateway.downstream;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Stock routing filter, except that lb:// routes go out through the pool of
+ * their service instead of the gateway's single shared pool. Runs just ahead
+ * of the default routingFilter, which then sees the exchange as already routed
+ * and skips it; the default stays registered because the response writer
+ * (nettyWriteResponseFilter) is switched on and off together with it.
+ */
+public class DownstreamRoutingFilter extends NettyRoutingFilter {
+
+    private final DownstreamHttpClients downstreamHttpClients;
+
+    public DownstreamRoutingFilter(HttpClient httpClient,
+                                   ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                   HttpClientProperties properties,
+                                   DownstreamHttpClients downstreamHttpClients) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.downstreamHttpClients = downstreamHttpClients;
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        URI uri = route.getUri();
+        if (!"lb".equals(uri.getScheme()) || uri.getHost() == null) {
+            return super.getHttpClient(route, exchange);
+        }
+
+        HttpClient client = downstreamHttpClients.forService(uri.getHost());
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+        }
+        return client;
+    }
+}
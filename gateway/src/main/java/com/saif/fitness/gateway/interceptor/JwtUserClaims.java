@@ -0,0 +1,52 @@
+package com.saif.fitness.gateway.interceptor;
+
+import com.saif.fitness.gateway.user.UserRequestDto;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the Keycloak user claims from the {@link Jwt} that Spring Security has
+ * already decoded and verified for this exchange.
+ *
+ * The resource server puts a {@link JwtAuthenticationToken} in the reactive
+ * security context before any of our WebFilters run, so there is no need to
+ * parse the Authorization header a second time.
+ */
+public final class JwtUserClaims {
+
+    private JwtUserClaims() {
+    }
+
+    /**
+     * Emits the current user's details, or completes empty when the exchange
+     * is not authenticated with a JWT carrying a {@code sub}.
+     */
+    public static Mono<UserRequestDto> current() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(context -> fromAuthentication(context.getAuthentication()));
+    }
+
+    static UserRequestDto fromAuthentication(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            return fromJwt(jwtAuthentication.getToken());
+        }
+        return null;
+    }
+
+    static UserRequestDto fromJwt(Jwt jwt) {
+        String subject = jwt.getSubject();
+        if (subject == null || subject.isBlank()) {
+            return null;
+        }
+
+        UserRequestDto userRequestDto = new UserRequestDto();
+        userRequestDto.setEmail(jwt.getClaimAsString("email"));
+        userRequestDto.setKeycloakId(subject);
+        userRequestDto.setFirstName(jwt.getClaimAsString("given_name"));
+        userRequestDto.setLastName(jwt.getClaimAsString("family_name"));
+        return userRequestDto;
+    }
+}
@@ -2,17 +2,18 @@ package com.saif.fitness.gateway.interceptor;
 
 import com.saif.fitness.gateway.user.UserRequestDto;
 import com.saif.fitness.gateway.user.UserService;
+import com.saif.fitness.gateway.user.UserSyncCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
-import java.text.ParseException;
+
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -20,6 +21,7 @@ import java.text.ParseException;
 public class KeycloakUserSyncFilter implements WebFilter {
 
     private final UserService userService;
+    private final UserSyncCache userSyncCache;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -27,66 +29,64 @@ public class KeycloakUserSyncFilter implements WebFilter {
         String path = exchange.getRequest().getURI().getPath();
 
         if (path.startsWith("/api/auth/")) {
-            log.info("Skipping KeycloakUserSyncFilter for {}", path);
+            log.debug("Skipping KeycloakUserSyncFilter for {}", path);
             return chain.filter(exchange);
         }
 
         if(path.startsWith("/ping")){
-            log.info("Skipping KeycloakUserSyncFilter for {}", path);
+            log.debug("Skipping KeycloakUserSyncFilter for {}", path);
             return chain.filter(exchange);
         }
 
-        log.info("Incoming request: {}",exchange.getRequest().getURI());
-        log.info("calling user sync filter");
-        String userId=exchange.getRequest().getHeaders().getFirst("X-User-ID");
-        String token=exchange.getRequest().getHeaders().getFirst("Authorization");
-        UserRequestDto userRequestDto=getUserDetails(token);
-        if(userId == null){
-            userId=userRequestDto.getKeycloakId();
-        }
-        if (userId != null && !token.isEmpty()){
-            String finalUserId = userId;
-            return userService.validateUser(userId)
-                    .flatMap(exists -> {
-                        if (!exists) {
-                            if (userRequestDto != null) {
-                                return userService.registerUser(userRequestDto)
-                                        .then(Mono.just(false));
-                            } else {
-                                return Mono.just(false);
-                            }
-                        } else {
-                            log.info("User already exist, Skipping sync");
-                            return Mono.just(true);
-                        }
-                    })
-                    .then(Mono.defer(() -> {
-                        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                                .header("X-User-ID", finalUserId)
-                                .build();
-                        return chain.filter(exchange.mutate().request(mutatedRequest).build());
-                    }));
-
-        }
-        return chain.filter(exchange);
+        // Claims come from the Jwt Spring Security already verified; no second parse.
+        // X-User-ID is always the verified sub: a value the client sent is overwritten,
+        // so downstream services can trust it as the caller's identity.
+        return JwtUserClaims.current()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(userRequestDto -> {
+                    if (userRequestDto.isEmpty()) {
+                        return reject(exchange);
+                    }
+                    String userId = userRequestDto.get().getKeycloakId();
+                    return userSyncCache.ensureSynced(userId, () -> syncUser(userId, userRequestDto.get()))
+                            .then(Mono.defer(() -> {
+                                ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                                        .headers(headers -> headers.set("X-User-ID", userId))
+                                        .build();
+                                return chain.filter(exchange.mutate().request(mutatedRequest).build());
+                            }));
+                });
     }
 
-    private UserRequestDto getUserDetails(String token) {
-        log.info("Parsing jwt token");
-        try {
-            String tokenWithoutBearer=token.replace("Bearer","").trim();
-            SignedJWT signedJWT=SignedJWT.parse(tokenWithoutBearer);
-            JWTClaimsSet claims=signedJWT.getJWTClaimsSet();
-
-            UserRequestDto userRequestDto=new UserRequestDto();
-            userRequestDto.setEmail(claims.getStringClaim("email"));
-            userRequestDto.setKeycloakId(claims.getStringClaim("sub"));
-            userRequestDto.setFirstName(claims.getStringClaim("given_name"));
-            userRequestDto.setLastName(claims.getStringClaim("family_name"));
+    /**
+     * No authenticated Jwt in the context (missing or malformed bearer token):
+     * answer 401 without touching USER-SERVICE or the downstream route.
+     */
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        log.debug("Rejecting unauthenticated request: {}", exchange.getRequest().getURI().getPath());
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
 
-            return userRequestDto;
-        }catch (ParseException e){
-            throw new RuntimeException(e);
-        }
+    /**
+     * Validates the user against USER-SERVICE and registers them if missing.
+     * Only runs on a {@link UserSyncCache} miss.
+     */
+    private Mono<Boolean> syncUser(String userId, UserRequestDto userRequestDto) {
+        return userService.validateUser(userId)
+                .flatMap(exists -> {
+                    if (!exists) {
+                        if (userRequestDto != null) {
+                            return userService.registerUser(userRequestDto)
+                                    .thenReturn(true);
+                        } else {
+                            return Mono.just(false);
+                        }
+                    } else {
+                        log.debug("User already exist, Skipping sync");
+                        return Mono.just(true);
+                    }
+                });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.saif.fitness.gateway.loadbalancer;
+
+import com.saif.fitness.gateway.loadbalancer.InstanceLatencyTracker.InFlightRequest;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives back the in-flight count of a load-balanced request on every terminal
+ * signal, cancel included, for lb:// routes (global filter just ahead of the
+ * load balancer filter) and the {@code @LoadBalanced} WebClient (outermost
+ * exchange filter). See {@link InstanceLatencyTracker}.
+ */
+@Component
+public class InFlightReleaseFilter implements GlobalFilter, Ordered, ExchangeFilterFunction {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        InFlightRequest inFlight = new InFlightRequest();
+        exchange.getAttributes().put(InstanceLatencyTracker.IN_FLIGHT_ATTR, inFlight);
+        return chain.filter(exchange)
+                .doFinally(signal -> inFlight.release());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        InFlightRequest inFlight = new InFlightRequest();
+        return next.exchange(ClientRequest.from(request)
+                        .attribute(InstanceLatencyTracker.IN_FLIGHT_ATTR, inFlight)
+                        .build())
+                .doFinally(signal -> inFlight.release());
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,200 @@
+package com.saif.fitness.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-instance load signal for {@link LatencyAwareLoadBalancer}: peak-EWMA
+ * latency and in-flight request count, fed by the load balancer lifecycle
+ * callbacks of both the gateway routes and the {@code @LoadBalanced} WebClient.
+ *
+ * Design decisions:
+ *  - Peak EWMA: a slower observation replaces the average immediately, faster
+ *    ones pull it down gradually (time constant {@code decay-time}).
+ *  - Idle decay: an instance that is not being picked sees its score decay
+ *    towards zero, so a slow instance is re-probed once it may have warmed up.
+ *  - A failed call (exception or 5xx) puts the instance in a short cool-down
+ *    during which it is only picked if every candidate is cooling down.
+ *  - The lifecycle only calls onComplete on success or error, never on cancel
+ *    (time limiter, client gone, coalescing fall-through). Each request therefore
+ *    carries an {@link InFlightRequest} under {@link #IN_FLIGHT_ATTR}, seeded by
+ *    {@link InFlightReleaseFilter}, which releases its in-flight count exactly
+ *    once, whichever of onComplete and the filter's doFinally comes first.
+ */
+@Component
+public class InstanceLatencyTracker
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    public static final String IN_FLIGHT_ATTR = InstanceLatencyTracker.class.getName() + ".inFlight";
+
+    private static final double UNPROBED_BUSY_PENALTY = Double.MAX_VALUE / 2;
+
+    private final long decayNanos;
+    private final long coolDownNanos;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceLatencyTracker(
+            @Value("${gateway.loadbalancer.decay-time:PT10S}") Duration decayTime,
+            @Value("${gateway.loadbalancer.failure-cooldown:PT5S}") Duration failureCoolDown) {
+        this.decayNanos = decayTime.toNanos();
+        this.coolDownNanos = failureCoolDown.toNanos();
+    }
+
+    /** Lower is better; roughly "expected wait" = latency x (queue + 1). */
+    public double cost(ServiceInstance instance) {
+        InstanceStats instanceStats = stats.get(keyOf(instance));
+        return instanceStats == null ? 0 : instanceStats.cost(System.nanoTime());
+    }
+
+    public void requestStarted(ServiceInstance instance) {
+        statsFor(instance).inFlight.incrementAndGet();
+    }
+
+    public void requestCompleted(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats instanceStats = statsFor(instance);
+        instanceStats.inFlight.decrementAndGet();
+        instanceStats.observe(latencyNanos, failed, System.nanoTime());
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        InFlightRequest inFlight = inFlightOf(request);
+        if (inFlight != null) {
+            inFlight.start(statsFor(lbResponse.getServer()));
+        } else {
+            requestStarted(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        long startedAt = completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                ? timed.getRequestStartTime() : 0;
+        long latency = startedAt > 0 ? System.nanoTime() - startedAt : 0;
+
+        ResponseData responseData = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (responseData != null && responseData.getHttpStatus() != null
+                    && responseData.getHttpStatus().is5xxServerError());
+
+        InFlightRequest inFlight = inFlightOf(completionContext.getLoadBalancerRequest());
+        if (inFlight == null) {
+            requestCompleted(lbResponse.getServer(), latency, failed);
+        } else if (inFlight.release()) {
+            statsFor(lbResponse.getServer()).observe(latency, failed, System.nanoTime());
+        }
+    }
+
+    private static InFlightRequest inFlightOf(Request<RequestDataContext> request) {
+        if (request != null && request.getContext() != null && request.getContext().getClientRequest() != null) {
+            Map<String, Object> attributes = request.getContext().getClientRequest().getAttributes();
+            if (attributes != null && attributes.get(IN_FLIGHT_ATTR) instanceof InFlightRequest inFlight) {
+                return inFlight;
+            }
+        }
+        return null;
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(keyOf(instance), key -> new InstanceStats());
+    }
+
+    private static String keyOf(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * One load-balanced request's share of its instance's in-flight count:
+     * taken when the instance is picked, given back by {@link #release()} at
+     * most once. Released before it started (cancelled while choosing), it
+     * never counts at all.
+     */
+    public static final class InFlightRequest {
+
+        private static final Object RELEASED = new Object();
+
+        private final AtomicReference<Object> state = new AtomicReference<>();
+
+        void start(InstanceStats instanceStats) {
+            if (state.compareAndSet(null, instanceStats)) {
+                instanceStats.inFlight.incrementAndGet();
+            }
+        }
+
+        /** @return true if this call gave the count back, false if it was already released */
+        public boolean release() {
+            Object previous = state.getAndSet(RELEASED);
+            if (previous instanceof InstanceStats instanceStats) {
+                instanceStats.inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long lastObservedAt;
+        private long coolDownUntil = Long.MIN_VALUE;
+
+        synchronized void observe(long latencyNanos, boolean failed, long now) {
+            if (failed) {
+                coolDownUntil = now + coolDownNanos;
+            }
+            if (latencyNanos <= 0) {
+                return;
+            }
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastObservedAt) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastObservedAt = now;
+        }
+
+        synchronized double cost(long now) {
+            if (now < coolDownUntil) {
+                return Double.MAX_VALUE;
+            }
+            if (ewmaNanos == 0) {
+                // never measured: allow one probe at a time rather than a stampede
+                return inFlight.get() == 0 ? 0 : UNPROBED_BUSY_PENALTY;
+            }
+            double idleDecay = Math.exp(-(double) (now - lastObservedAt) / decayNanos);
+            return ewmaNanos * idleDecay * (inFlight.get() + 1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.saif.fitness.gateway.projection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parsed {@code fields=} value: a tree of property names where a leaf keeps the
+ * whole value. {@code fields=id,type,additionalMetrics.steps} keeps {@code id},
+ * {@code type} and only {@code steps} inside {@code additionalMetrics}.
+ * Arrays are transparent: the selection applies to each element.
+ */
+final class FieldSelection {
+
+    static final FieldSelection ALL = new FieldSelection(Map.of());
+
+    private final Map<String, FieldSelection> children;
+
+    private FieldSelection(Map<String, FieldSelection> children) {
+        this.children = children;
+    }
+
+    boolean includesAll() {
+        return this == ALL;
+    }
+
+    /** Selection for the named property, or null if the property is dropped. */
+    FieldSelection child(String name) {
+        return includesAll() ? ALL : children.get(name);
+    }
+
+    static FieldSelection parse(String spec, int maxFields, int maxDepth) {
+        String[] paths = spec.split(",");
+        if (paths.length > maxFields) {
+            throw new IllegalArgumentException("At most " + maxFields + " fields may be selected");
+        }
+
+        Map<String, Object> root = new HashMap<>();
+        for (String path : paths) {
+            String[] segments = path.trim().split("\\.", -1);
+            if (segments.length > maxDepth) {
+                throw new IllegalArgumentException("Field '" + path.trim() + "' is nested deeper than " + maxDepth);
+            }
+            add(root, segments);
+        }
+        return freeze(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(Map<String, Object> node, String[] segments) {
+        for (int i = 0; i < segments.length; i++) {
+            String name = segments[i];
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty field name in '" + String.join(".", segments) + "'");
+            }
+            Object existing = node.get(name);
+            if (existing == ALL) {
+                return;
+            }
+            if (i == segments.length - 1) {
+                node.put(name, ALL);
+                return;
+            }
+            if (existing == null) {
+                existing = new HashMap<String, Object>();
+                node.put(name, existing);
+            }
+            node = (Map<String, Object>) existing;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldSelection freeze(Map<String, Object> node) {
+        Map<String, FieldSelection> children = new HashMap<>(node.size() * 2);
+        node.forEach((name, child) -> children.put(name,
+                child == ALL ? ALL : freeze((Map<String, Object>) child)));
+        return new FieldSelection(Map.copyOf(children));
+    }
+}
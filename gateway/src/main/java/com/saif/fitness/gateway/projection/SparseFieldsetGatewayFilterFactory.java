@@ -0,0 +1,151 @@
+package com.saif.fitness.gateway.projection;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Sparse fieldsets in the proxy: {@code GET /api/activities?fields=content.id,content.type}
+ * returns only the selected properties of a JSON response.
+ * Usage in gateway-service.yml:
+ * <pre>
+ * filters:
+ *   - name: SparseFieldset
+ *     args:
+ *       max-fields: 32
+ *       max-depth: 4
+ * </pre>
+ *
+ * Design decisions:
+ *  - The body is projected token by token with a non-blocking Jackson parser as
+ *    chunks arrive; no tree is built and dropped values are never copied.
+ *  - {@code fields} is stripped before routing, so downstream services and the
+ *    response cache behind this filter see the plain URL and keep one entry
+ *    for every projection of it.
+ *  - A projection is a different representation of the same resource, so a
+ *    downstream or cached ETag is downgraded to a weak one.
+ *  - Non-JSON, non-2xx and content-encoded responses pass through untouched.
+ */
+@Component
+@Slf4j
+public class SparseFieldsetGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<SparseFieldsetGatewayFilterFactory.Config> {
+
+    static final String FIELDS_PARAM = "fields";
+
+    public SparseFieldsetGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String spec = request.getQueryParams().getFirst(FIELDS_PARAM);
+            if (spec == null || spec.isBlank()) {
+                return chain.filter(exchange);
+            }
+
+            FieldSelection selection;
+            try {
+                selection = FieldSelection.parse(spec, config.getMaxFields(), config.getMaxDepth());
+            } catch (IllegalArgumentException e) {
+                log.debug("Rejected fields={}: {}", spec, e.getMessage());
+                exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+                return exchange.getResponse().setComplete();
+            }
+
+            URI downstream = UriComponentsBuilder.fromUri(request.getURI())
+                    .replaceQueryParam(FIELDS_PARAM)
+                    .build(true)
+                    .toUri();
+            return chain.filter(exchange.mutate()
+                    .request(request.mutate().uri(downstream).build())
+                    .response(new ProjectingResponse(exchange.getResponse(), selection))
+                    .build());
+        };
+    }
+
+    private static final class ProjectingResponse extends ServerHttpResponseDecorator {
+
+        private final FieldSelection selection;
+
+        ProjectingResponse(ServerHttpResponse delegate, FieldSelection selection) {
+            super(delegate);
+            this.selection = selection;
+            beforeCommit(() -> {
+                String etag = getHeaders().getETag();
+                if (etag != null && !etag.startsWith("W/")) {
+                    getHeaders().setETag("W/" + etag);
+                }
+                return Mono.empty();
+            });
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (!projectable(getStatusCode(), headers)) {
+                return super.writeWith(body);
+            }
+
+            StreamingJsonProjector projector = new StreamingJsonProjector(selection);
+            Flux<DataBuffer> projected = Flux.from(body)
+                    .map(buffer -> {
+                        try {
+                            byte[] chunk = new byte[buffer.readableByteCount()];
+                            buffer.read(chunk);
+                            return projector.feed(chunk);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .concatWith(Mono.fromCallable(projector::finish))
+                    .filter(bytes -> bytes.length > 0)
+                    .map(bufferFactory()::wrap);
+
+            if (headers.getContentLength() < 0) {
+                return super.writeWith(projected);
+            }
+            // bounded body: keep a Content-Length so the response stays cacheable and unchunked
+            return DataBufferUtils.join(projected)
+                    .defaultIfEmpty(bufferFactory().wrap(new byte[0]))
+                    .flatMap(joined -> {
+                        headers.setContentLength(joined.readableByteCount());
+                        return super.writeWith(Mono.just(joined));
+                    });
+        }
+
+        private static boolean projectable(HttpStatusCode status, HttpHeaders headers) {
+            MediaType contentType = headers.getContentType();
+            return status != null && status.is2xxSuccessful()
+                    && contentType != null
+                    && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                        || "json".equals(contentType.getSubtypeSuffix()))
+                    && !headers.containsHeader(HttpHeaders.CONTENT_ENCODING);
+        }
+    }
+
+    @Data
+    public static class Config {
+        private int maxFields = 32;
+        private int maxDepth = 4;
+    }
+}
@@ -0,0 +1,123 @@
+package com.saif.fitness.gateway.projection;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.async.ByteArrayFeeder;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Projects one JSON document chunk by chunk with Jackson's non-blocking parser:
+ * tokens of selected properties are copied to the output as they arrive,
+ * everything else is skipped without ever building a tree. One instance per
+ * response body; not thread-safe.
+ */
+final class StreamingJsonProjector {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final byte[] NOTHING = new byte[0];
+
+    private final FieldSelection root;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final JsonGenerator generator;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    // selection for the value following the last copied property name
+    private FieldSelection pending;
+    private boolean skipValue;
+    private int skipDepth;
+
+    StreamingJsonProjector(FieldSelection root) {
+        this.root = root;
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser(ObjectReadContext.empty());
+        this.feeder = (ByteArrayFeeder) parser.nonBlockingInputFeeder();
+        this.generator = JSON_FACTORY.createGenerator(ObjectWriteContext.empty(), out);
+    }
+
+    /** Feeds the next chunk and returns the projected bytes it produced (possibly none). */
+    byte[] feed(byte[] chunk) {
+        feeder.feedInput(chunk, 0, chunk.length);
+        copyAvailableTokens();
+        generator.flush();
+        return takeOutput();
+    }
+
+    /** Signals end of input and returns whatever is left. */
+    byte[] finish() {
+        feeder.endOfInput();
+        copyAvailableTokens();
+        parser.close();
+        generator.close();
+        return takeOutput();
+    }
+
+    private void copyAvailableTokens() {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token);
+        }
+    }
+
+    private byte[] takeOutput() {
+        if (out.size() == 0) {
+            return NOTHING;
+        }
+        byte[] bytes = out.toByteArray();
+        out.reset();
+        return bytes;
+    }
+
+    private void handle(JsonToken token) {
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return;
+        }
+
+        if (token == JsonToken.PROPERTY_NAME) {
+            FieldSelection selected = frames.peek().selection().child(parser.currentName());
+            if (selected == null) {
+                skipValue = true;
+            } else {
+                pending = selected;
+                generator.copyCurrentEvent(parser);
+            }
+            return;
+        }
+
+        if (token.isStructEnd()) {
+            frames.pop();
+            generator.copyCurrentEvent(parser);
+            return;
+        }
+
+        if (skipValue) {
+            skipValue = false;
+            if (token.isStructStart()) {
+                skipDepth = 1;
+            }
+            return;
+        }
+
+        if (token.isStructStart()) {
+            Frame parent = frames.peek();
+            FieldSelection selection = parent == null ? root : parent.array() ? parent.selection() : pending;
+            frames.push(new Frame(selection, token == JsonToken.START_ARRAY));
+        }
+        generator.copyCurrentEventExact(parser);
+    }
+
+    private record Frame(FieldSelection selection, boolean array) {
+    }
+}
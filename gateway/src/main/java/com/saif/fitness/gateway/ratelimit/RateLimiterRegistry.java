@@ -0,0 +1,143 @@
+package com.saif.fitness.gateway.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Owns one {@link TokenBucketRateLimiter} per route and evicts idle buckets in
+ * the background, one stripe per tick, so memory tracks active users only.
+ * Limiters survive route refreshes as long as the route's limits are unchanged;
+ * those of routes gone after a refresh are dropped with their gauge. A route
+ * with invalid limits fails startup (later, a refresh that introduces one fails
+ * and keeps the previous routes).
+ */
+@Component("userRateLimiterRegistry") // "rateLimiterRegistry" is taken by Resilience4j
+public class RateLimiterRegistry {
+
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, String> invalidRoutes = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long idleNanos;
+    private final Disposable sweeper;
+    private int nextStripe;
+
+    public RateLimiterRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limit.idle-eviction:PT10M}") Duration idleEviction,
+            @Value("${gateway.rate-limit.sweep-interval:PT1S}") Duration sweepInterval) {
+        this.meterRegistry = meterRegistry;
+        this.idleNanos = idleEviction.toNanos();
+        this.sweeper = Flux.interval(sweepInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> sweep());
+    }
+
+    public TokenBucketRateLimiter limiterFor(String routeId, double replenishRate, int burstCapacity) {
+        return limiterFor(routeId, replenishRate, burstCapacity, true);
+    }
+
+    /** A limiter not tied to a route (e.g. the batch endpoint's): kept across route refreshes. */
+    public TokenBucketRateLimiter standaloneLimiter(String name, double replenishRate, int burstCapacity) {
+        return limiterFor(name, replenishRate, burstCapacity, false);
+    }
+
+    private TokenBucketRateLimiter limiterFor(String id, double replenishRate, int burstCapacity, boolean routeScoped) {
+        try {
+            TokenBucketRateLimiter limiter = limiter(id, replenishRate, burstCapacity, routeScoped);
+            invalidRoutes.remove(id);
+            return limiter;
+        } catch (IllegalArgumentException e) {
+            invalidRoutes.put(id, e.getMessage());
+            throw new IllegalArgumentException("Rate limit for " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    private TokenBucketRateLimiter limiter(String routeId, double replenishRate, int burstCapacity, boolean routeScoped) {
+        return limiters.compute(routeId, (id, existing) -> {
+            if (existing != null && existing.routeScoped() == routeScoped
+                    && existing.replenishRate() == replenishRate
+                    && existing.burstCapacity() == burstCapacity) {
+                return existing;
+            }
+            if (existing != null) {
+                meterRegistry.remove(existing.bucketsGauge());
+            }
+            TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(replenishRate, burstCapacity);
+            Gauge bucketsGauge = Gauge.builder("gateway.rate-limit.buckets", limiter, TokenBucketRateLimiter::size)
+                    .description("Token buckets currently held in memory")
+                    .tag("route", id)
+                    .strongReference(false)
+                    .register(meterRegistry);
+            return new RouteLimiter(limiter, replenishRate, burstCapacity, routeScoped, bucketsGauge);
+        }).limiter();
+    }
+
+    /**
+     * The route locator only logs a route whose filters fail to build, so bad
+     * limits would otherwise start a gateway without that route.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failOnInvalidLimits() {
+        if (!invalidRoutes.isEmpty()) {
+            throw new IllegalStateException("Invalid rate limits by route: " + invalidRoutes);
+        }
+    }
+
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        if (event.isSuccess() && event.getSource() instanceof RouteLocator routeLocator) {
+            routeLocator.getRoutes()
+                    .map(Route::getId)
+                    .collect(Collectors.toSet())
+                    .subscribe(this::retainRoutes);
+        }
+    }
+
+    private void retainRoutes(Set<String> routeIds) {
+        invalidRoutes.keySet().retainAll(routeIds);
+        for (String id : limiters.keySet()) {
+            if (!routeIds.contains(id)) {
+                limiters.computeIfPresent(id, (key, routeLimiter) -> {
+                    if (!routeLimiter.routeScoped()) {
+                        return routeLimiter;
+                    }
+                    meterRegistry.remove(routeLimiter.bucketsGauge());
+                    return null;
+                });
+            }
+        }
+    }
+
+    private synchronized void sweep() {
+        long idleBefore = System.nanoTime() - idleNanos;
+        int stripe = nextStripe++;
+        for (RouteLimiter routeLimiter : limiters.values()) {
+            routeLimiter.limiter().evictIdle(stripe, idleBefore);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.dispose();
+    }
+
+    private record RouteLimiter(TokenBucketRateLimiter limiter, double replenishRate, int burstCapacity,
+                                boolean routeScoped, Gauge bucketsGauge) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.saif.fitness.gateway.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per key, for a single route.
+ *
+ * Design decisions:
+ *  - Each bucket is a single AtomicLong holding its "theoretical arrival time"
+ *    (GCRA). That is equivalent to a token bucket of {@code burstCapacity}
+ *    tokens refilled at {@code replenishRate}/s, but needs one CAS and no
+ *    allocation per request once the key exists.
+ *  - Buckets live in a fixed array of ConcurrentHashMap stripes so idle buckets
+ *    can be evicted one stripe at a time without a global pause.
+ *  - A bucket whose arrival time is in the past is full again, i.e. identical to
+ *    a fresh one, so evicting it loses nothing.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    /**
+     * @throws IllegalArgumentException unless replenishRate is positive and at most
+     *         one token per nanosecond, and burstCapacity at least 1: anything else
+     *         divides by zero or overflows below, and the bucket stops limiting
+     */
+    public TokenBucketRateLimiter(double replenishRate, int burstCapacity) {
+        if (burstCapacity < 1) {
+            throw new IllegalArgumentException("burst-capacity must be at least 1, was " + burstCapacity);
+        }
+        double intervalNanos = 1_000_000_000L / replenishRate;
+        if (!(replenishRate > 0) || intervalNanos < 1 || intervalNanos > (double) Long.MAX_VALUE / burstCapacity) {
+            throw new IllegalArgumentException("replenish-rate must be positive and at most 1e9/s, was " + replenishRate);
+        }
+        this.emissionIntervalNanos = (long) intervalNanos;
+        this.burstToleranceNanos = emissionIntervalNanos * (burstCapacity - 1L);
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise how many nanoseconds the
+     *         caller has to wait before a token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripeFor(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long base = Math.max(arrival, nowNanos);
+            long wait = base - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Drops buckets in one stripe that have been full since before {@code idleBeforeNanos}. */
+    public void evictIdle(int stripe, long idleBeforeNanos) {
+        stripes[stripe & (STRIPES - 1)].values().removeIf(bucket -> bucket.get() < idleBeforeNanos);
+    }
+
+    public int stripeCount() {
+        return STRIPES;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
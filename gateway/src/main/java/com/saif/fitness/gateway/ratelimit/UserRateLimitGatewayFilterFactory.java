@@ -0,0 +1,88 @@
+package com.saif.fitness.gateway.ratelimit;
+
+import com.saif.fitness.gateway.batch.BatchService;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user, per-route token bucket. Usage in gateway-service.yml:
+ * <pre>
+ * filters:
+ *   - name: UserRateLimit
+ *     args:
+ *       replenish-rate: 5     # tokens per second
+ *       burst-capacity: 20
+ * </pre>
+ * Authenticated requests are keyed by the JWT {@code sub}; anonymous ones
+ * (e.g. /api/auth/**) by client IP. Throttled requests get 429 + Retry-After.
+ * Batch sub-requests are not charged; the batch was (see BatchService).
+ */
+@Component
+public class UserRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<UserRateLimitGatewayFilterFactory.Config> {
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final RateLimiterRegistry rateLimiterRegistry;
+
+    public UserRateLimitGatewayFilterFactory(RateLimiterRegistry rateLimiterRegistry) {
+        super(Config.class);
+        this.rateLimiterRegistry = rateLimiterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        TokenBucketRateLimiter limiter = rateLimiterRegistry.limiterFor(
+                config.getRouteId(), config.getReplenishRate(), config.getBurstCapacity());
+
+        return (exchange, chain) -> {
+            if (exchange.getAttribute(BatchService.SUB_REQUEST_ATTR) != null) {
+                return chain.filter(exchange);
+            }
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .switchIfEmpty(Mono.fromSupplier(() -> clientAddress(exchange)))
+                    .flatMap(key -> {
+                        long waitNanos = limiter.tryAcquire(key, System.nanoTime());
+                        if (waitNanos == 0) {
+                            return chain.filter(exchange);
+                        }
+                        return reject(exchange.getResponse(), waitNanos);
+                    });
+        };
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private static String clientAddress(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private double replenishRate = 10;
+        private int burstCapacity = 20;
+    }
+}
@@ -0,0 +1,127 @@
+package com.saif.fitness.gateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps Keycloak's JWK set in memory so key lookups never hit the network on
+ * the request path.
+ *
+ * Design decisions:
+ *  - The set is fetched once at startup and then refreshed in the background on
+ *    a fixed interval, well inside Keycloak's key rotation period.
+ *  - A token whose kid is unknown triggers one refetch (key rotation), but at most
+ *    once per min-refetch-interval, so garbage kids cannot hammer Keycloak.
+ *  - Concurrent fetches share a single in-flight request.
+ *  - Fetch failures keep the last good set; an unreachable Keycloak at startup is
+ *    logged, not fatal.
+ */
+@Slf4j
+public class JwkSetCache {
+
+    private static final Duration STARTUP_FETCH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration refreshInterval;
+    private final long minRefetchNanos;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile long lastFetchStartedNanos;
+    private final AtomicReference<Mono<JWKSet>> inFlight = new AtomicReference<>();
+    private Disposable refreshTask;
+
+    public JwkSetCache(WebClient webClient, String jwkSetUri, Duration refreshInterval, Duration minRefetchInterval) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefetchNanos = minRefetchInterval.toNanos();
+        this.lastFetchStartedNanos = System.nanoTime() - minRefetchNanos;
+    }
+
+    public void start() {
+        try {
+            JWKSet fetched = fetch().block(STARTUP_FETCH_TIMEOUT);
+            log.info("Prefetched {} JWK(s) from {}", fetched == null ? 0 : fetched.size(), jwkSetUri);
+        } catch (Exception e) {
+            log.warn("JWK set prefetch failed, will retry in background: {}", e.getMessage());
+        }
+
+        refreshTask = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> fetch()
+                        .onErrorResume(e -> {
+                            log.warn("JWK set refresh failed, keeping previous keys: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * Key source for {@code NimbusReactiveJwtDecoder.withJwkSource}: keys matching
+     * the token header, refetching once (rate limited) on a kid miss.
+     */
+    public Flux<JWK> select(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        List<JWK> keys = selector.select(jwkSet);
+        if (!keys.isEmpty()) {
+            return Flux.fromIterable(keys);
+        }
+        return refetchOnKidMiss().flatMapIterable(selector::select);
+    }
+
+    private Mono<JWKSet> refetchOnKidMiss() {
+        if (System.nanoTime() - lastFetchStartedNanos < minRefetchNanos) {
+            return Mono.just(jwkSet);
+        }
+        return fetch().onErrorReturn(jwkSet);
+    }
+
+    private Mono<JWKSet> fetch() {
+        Mono<JWKSet> current = inFlight.get();
+        if (current != null) {
+            return current;
+        }
+
+        Mono<JWKSet> request = Mono.defer(() -> {
+                    lastFetchStartedNanos = System.nanoTime();
+                    return webClient.get()
+                            .uri(jwkSetUri)
+                            .retrieve()
+                            .bodyToMono(String.class);
+                })
+                .map(this::parse)
+                .doOnNext(fetched -> jwkSet = fetched)
+                .doFinally(signal -> inFlight.set(null))
+                .cache();
+
+        return inFlight.compareAndSet(null, request) ? request : fetch();
+    }
+
+    private JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JWK set from " + jwkSetUri, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.saif.fitness.gateway.user;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which Keycloak users are already known to USER-SERVICE, so the
+ * gateway does not pay a validate round trip on every authenticated request.
+ *
+ * Design decisions:
+ *  - Keyed by Keycloak {@code sub}; bounded by size and expired after a TTL so a
+ *    user deleted in USER-SERVICE is re-synced eventually.
+ *  - Backed by an async cache: concurrent first requests for the same user share
+ *    one in-flight validate/register call instead of racing registerUser.
+ *  - Only confirmed users are cached. A failed or negative sync completes the
+ *    future with an error/null, which Caffeine drops, so the next request retries.
+ *  - Hit/miss/eviction stats are published as "cache.*" meters, name=user-sync.
+ */
+@Component
+public class UserSyncCache {
+
+    private final AsyncCache<String, Boolean> syncedUsers;
+
+    public UserSyncCache(
+            @Value("${gateway.user-sync.cache.max-size:10000}") long maxSize,
+            @Value("${gateway.user-sync.cache.ttl:PT15M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        this.syncedUsers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, syncedUsers, "user-sync");
+    }
+
+    /**
+     * Completes once the user is known to exist in USER-SERVICE. The supplied
+     * sync call runs only on a cache miss, and at most once per key at a time.
+     */
+    public Mono<Boolean> ensureSynced(String keycloakId, Supplier<Mono<Boolean>> sync) {
+        // suppressCancel: one client hanging up must not cancel the shared call
+        return Mono.fromFuture(
+                () -> syncedUsers.get(keycloakId, (key, executor) ->
+                        sync.get().filter(Boolean::booleanValue).toFuture()),
+                true);
+    }
+}
@@ -1,8 +1,11 @@
 package com.saif.fitness.gateway.user;
 
+import com.saif.fitness.gateway.downstream.DownstreamHttpClients;
+import com.saif.fitness.gateway.loadbalancer.InFlightReleaseFilter;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
@@ -10,14 +13,35 @@ public class WebClientConfig {
 
     @Bean
     @LoadBalanced //because of this we can call a service by its registry name so it will automatically assign any available instance of that service
-    public WebClient.Builder webClientBuilder(){
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(InFlightReleaseFilter inFlightReleaseFilter){
+        // added before the load balancer's own filter, so it wraps it
+        return WebClient.builder().filter(inFlightReleaseFilter);
     }
 
     @Bean
-    public WebClient userServiceWebClient(WebClient.Builder webclientBuilder){
+    public WebClient userServiceWebClient(WebClient.Builder webclientBuilder, DownstreamHttpClients downstreamHttpClients){
         return webclientBuilder
+                .clone()
                 .baseUrl("http://USER-SERVICE")
+                .clientConnector(new ReactorClientHttpConnector(downstreamHttpClients.forService("USER-SERVICE")))
+                .build();
+    }
+
+    @Bean
+    public WebClient activityServiceWebClient(WebClient.Builder webclientBuilder, DownstreamHttpClients downstreamHttpClients){
+        return webclientBuilder
+                .clone()
+                .baseUrl("http://ACTIVITY-SERVICE")
+                .clientConnector(new ReactorClientHttpConnector(downstreamHttpClients.forService("ACTIVITY-SERVICE")))
+                .build();
+    }
+
+    @Bean
+    public WebClient aiServiceWebClient(WebClient.Builder webclientBuilder, DownstreamHttpClients downstreamHttpClients){
+        return webclientBuilder
+                .clone()
+                .baseUrl("http://AI-SERVICE")
+                .clientConnector(new ReactorClientHttpConnector(downstreamHttpClients.forService("AI-SERVICE")))
                 .build();
     }
 }
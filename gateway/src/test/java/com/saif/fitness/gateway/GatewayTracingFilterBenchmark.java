@@ -0,0 +1,91 @@
+package com.saif.fitness.gateway;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link GatewayTracingFilter} from 8 threads on a Prometheus
+ * registry, as in production: timer lookup plus a percentile-histogram record
+ * per request. Access logging is sampled off, so only the timer is measured.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class GatewayTracingFilterBenchmark {
+
+    private static final String[] ROUTES = {"user-service-users", "activity-service", "ai-service"};
+    private static final HttpStatus[] STATUSES = {HttpStatus.OK, HttpStatus.NOT_FOUND, HttpStatus.SERVICE_UNAVAILABLE};
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    private GatewayTracingFilter filter;
+    private MockServerWebExchange[] exchanges;
+
+    @Setup
+    public void setUp() {
+        filter = new GatewayTracingFilter(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+                new AccessLogSampler(0, 0));
+
+        exchanges = new MockServerWebExchange[ROUTES.length * STATUSES.length];
+        int i = 0;
+        for (String routeId : ROUTES) {
+            for (HttpStatus status : STATUSES) {
+                MockServerWebExchange exchange = MockServerWebExchange.from(
+                        MockServerHttpRequest.get("/api/activities/6650c3f1e4b0a1b2c3d4e5f6").build());
+                exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                        .id(routeId)
+                        .uri("lb://" + routeId.toUpperCase())
+                        .predicate(e -> true)
+                        .build());
+                exchange.getResponse().setStatusCode(status);
+                exchanges[i++] = exchange;
+            }
+        }
+    }
+
+    @Benchmark
+    public Void singleTimer() {
+        return filter.filter(exchanges[0], CHAIN).block();
+    }
+
+    /** Nine route/status timers, picked at random: map lookup spread over several keys. */
+    @Benchmark
+    public Void mixedRoutesAndStatuses() {
+        MockServerWebExchange exchange = exchanges[ThreadLocalRandom.current().nextInt(exchanges.length)];
+        return filter.filter(exchange, CHAIN).block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(GatewayTracingFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
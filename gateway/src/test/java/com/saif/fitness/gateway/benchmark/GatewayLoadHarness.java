@@ -0,0 +1,251 @@
+package com.saif.fitness.gateway.benchmark;
+
+import com.saif.fitness.gateway.GatewayApplication;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustained-load harness for the whole gateway: boots {@link GatewayApplication}
+ * on a random port against {@link StubDownstreams} (JWKS, USER-SERVICE, echo
+ * services), then drives each filter configuration in turn with authenticated
+ * GETs and prints throughput and p50/p99/p999 latency.
+ *
+ * Each configuration is its own route, /bench/{scenario}/**, so the numbers
+ * differ only by the route filters; the web filters (JWT, KeycloakUserSyncFilter,
+ * GatewayTracingFilter) run for all of them. "direct" calls the stub without the
+ * gateway and is the floor to subtract.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it). Knobs, as -D:
+ * <pre>
+ * bench.scenarios=direct,no-filters,rate-limit,cache,full   # subset/order to run
+ * bench.concurrency=32       # requests in flight (closed loop)
+ * bench.users=1000           # distinct JWT subjects, picked at random per request
+ * bench.warmup=PT10S
+ * bench.duration=PT30S
+ * bench.max-p99-ms=...       # optional: exit 1 if any gateway scenario's p99 is above it
+ * </pre>
+ * Any gateway property can be overridden the same way, e.g.
+ * -Dgateway.security.jwt.decoder-mode=caching.
+ *
+ * "err" counts every non-2xx answer, including 503s from AdaptiveConcurrency
+ * shedding load when the machine running both sides saturates.
+ *
+ * Closed-loop load: a slow response delays the next request on its worker, so
+ * the tail under overload is understated (coordinated omission). Compare runs
+ * at the same concurrency, on the same machine.
+ */
+public class GatewayLoadHarness {
+
+    private static final String ECHO_SERVICE = "ECHO-SERVICE";
+
+    private static final List<Scenario> SCENARIOS = List.of(
+            new Scenario("direct", null),
+            new Scenario("no-filters", List.of()),
+            new Scenario("rate-limit", List.of(
+                    // far above the offered load: measures the filter, not the throttling
+                    filter("UserRateLimit", "replenish-rate", "1000000", "burst-capacity", "1000000"),
+                    filter("AdaptiveConcurrency"))),
+            new Scenario("cache", List.of(
+                    filter("SparseFieldset"),
+                    filter("UserResponseCache"),
+                    filter("RequestCoalescing"))),
+            new Scenario("full", List.of(
+                    filter("UserRateLimit", "replenish-rate", "1000000", "burst-capacity", "1000000"),
+                    filter("SparseFieldset"),
+                    filter("UserResponseCache"),
+                    filter("RequestCoalescing"),
+                    filter("AdaptiveConcurrency"),
+                    filter("CircuitBreaker", "name", "bench-full",
+                            "fallback-uri", "forward:/fallback/bench-full", "status-codes", "502,503,504"))));
+
+    public static void main(String[] args) throws Exception {
+        List<String> selected = Arrays.asList(
+                System.getProperty("bench.scenarios", "direct,no-filters,rate-limit,cache,full").split(","));
+        int concurrency = Integer.getInteger("bench.concurrency", 32);
+        int users = Integer.getInteger("bench.users", 1000);
+        Duration warmup = Duration.parse(System.getProperty("bench.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("bench.duration", "PT30S"));
+        String maxP99 = System.getProperty("bench.max-p99-ms");
+
+        List<Result> results = new ArrayList<>();
+        try (StubDownstreams stubs = StubDownstreams.start();
+             ConfigurableApplicationContext gateway = startGateway(stubs)) {
+
+            String gatewayUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+            String[] tokens = new String[users];
+            for (int i = 0; i < users; i++) {
+                tokens[i] = stubs.accessToken(UUID.randomUUID().toString());
+            }
+
+            ConnectionProvider connections = ConnectionProvider.builder("bench-client")
+                    .maxConnections(concurrency)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            WebClient client = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+
+            System.out.printf("concurrency=%d users=%d warmup=%s duration=%s%n", concurrency, users, warmup, duration);
+            for (Scenario scenario : SCENARIOS) {
+                if (!selected.contains(scenario.name())) {
+                    continue;
+                }
+                String url = scenario.direct()
+                        ? stubs.baseUrl() + "/api/activities/bench"
+                        : gatewayUrl + "/bench/" + scenario.name() + "/api/activities/bench";
+                drive(client, url, tokens, concurrency, warmup);
+                Result result = drive(client, url, tokens, concurrency, duration);
+                results.add(result.named(scenario.name()));
+                System.out.println(results.getLast());
+            }
+            connections.disposeLater().block();
+        }
+
+        if (maxP99 != null) {
+            double limitMillis = Double.parseDouble(maxP99);
+            List<Result> regressions = results.stream()
+                    .filter(result -> !result.scenario().equals("direct") && result.p99Millis() > limitMillis)
+                    .toList();
+            if (!regressions.isEmpty()) {
+                System.out.println("p99 above " + limitMillis + "ms: " + regressions);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(StubDownstreams stubs) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.config.import", "");
+        properties.put("spring.cloud.config.enabled", false);
+        properties.put("eureka.client.enabled", false);
+        properties.put("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", stubs.jwkSetUri());
+        properties.put("spring.cloud.discovery.client.simple.instances.USER-SERVICE[0].uri", stubs.baseUrl());
+        properties.put("spring.cloud.discovery.client.simple.instances." + ECHO_SERVICE + "[0].uri", stubs.baseUrl());
+        properties.put("gateway.access-log.sample-rate", 0);
+        // as in gateway-service.yml; Resilience4j's own default (1s) would time out a cold JVM
+        properties.put("resilience4j.timelimiter.configs.default.timeout-duration", "PT5S");
+
+        int index = 0;
+        for (Scenario scenario : SCENARIOS) {
+            if (scenario.direct()) {
+                continue;
+            }
+            String route = "spring.cloud.gateway.server.webflux.routes[" + index++ + "]";
+            properties.put(route + ".id", "bench-" + scenario.name());
+            properties.put(route + ".uri", "lb://" + ECHO_SERVICE);
+            properties.put(route + ".predicates[0]", "Path=/bench/" + scenario.name() + "/**");
+            properties.put(route + ".filters[0]", "StripPrefix=2");
+            for (int i = 0; i < scenario.filters().size(); i++) {
+                Filter filter = scenario.filters().get(i);
+                String prefix = route + ".filters[" + (i + 1) + "]";
+                properties.put(prefix + ".name", filter.name());
+                filter.args().forEach((name, value) -> properties.put(prefix + ".args." + name, value));
+            }
+        }
+
+        return new SpringApplicationBuilder(GatewayApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    /** Keeps concurrency requests in flight for the given time, each with a random user's token. */
+    private static Result drive(WebClient client, String url, String[] tokens, int concurrency, Duration duration) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Timer latency = Timer.builder("bench.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .percentilePrecision(3)
+                .distributionStatisticExpiry(duration.multipliedBy(2))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+        AtomicLong errors = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Mono<Void> one = Mono.defer(() -> {
+            long start = System.nanoTime();
+            String token = tokens[ThreadLocalRandom.current().nextInt(tokens.length)];
+            return client.get()
+                    .uri(url)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .doOnNext(ok -> {
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    })
+                    .then();
+        });
+
+        long started = System.nanoTime();
+        Mono.delay(duration).subscribe(tick -> running.set(false));
+        Flux.range(0, concurrency)
+                .flatMap(worker -> one.repeat(running::get), concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        Map<Double, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+        }
+        return new Result(null, snapshot.count(), errors.get(), snapshot.count() / seconds,
+                percentiles.get(0.5), percentiles.get(0.99), percentiles.get(0.999));
+    }
+
+    private static Filter filter(String name, String... args) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            map.put(args[i], args[i + 1]);
+        }
+        return new Filter(name, map);
+    }
+
+    /** filters == null: straight to the stub, no gateway. */
+    private record Scenario(String name, List<Filter> filters) {
+        boolean direct() {
+            return filters == null;
+        }
+    }
+
+    private record Filter(String name, Map<String, String> args) {
+    }
+
+    private record Result(String scenario, long requests, long errors, double perSecond,
+                          double p50Millis, double p99Millis, double p999Millis) {
+
+        Result named(String scenario) {
+            return new Result(scenario, requests, errors, perSecond, p50Millis, p99Millis, p999Millis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %9d req %6d err %9.0f req/s   p50 %7.2fms   p99 %7.2fms   p999 %7.2fms",
+                    scenario, requests, errors, perSecond, p50Millis, p99Millis, p999Millis);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.saif.fitness.gateway.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * In-process stand-ins for everything the gateway talks to, on one local port:
+ * the Keycloak JWKS endpoint, USER-SERVICE validate/register, and an echo
+ * service that answers any other path with a small fixed JSON body.
+ * Also signs access tokens with the key it publishes.
+ */
+public final class StubDownstreams implements AutoCloseable {
+
+    static final String JWKS_PATH = "/realms/fitness-app/protocol/openid-connect/certs";
+
+    private static final byte[] ECHO_BODY = """
+            {"id":"6650c3f1e4b0a1b2c3d4e5f6","userId":"bench","type":"RUNNING","duration":42,\
+            "caloriesBurned":420,"startTime":"2026-01-01T07:00:00","additionalMetrics":{"distance":7.5}}\
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RSAKey signingKey;
+    private final DisposableServer server;
+
+    private StubDownstreams(RSAKey signingKey, DisposableServer server) {
+        this.signingKey = signingKey;
+        this.server = server;
+    }
+
+    public static StubDownstreams start() throws JOSEException {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("bench").generate();
+        byte[] jwks = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+        DisposableServer server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get(JWKS_PATH, (request, response) -> json(response, jwks))
+                        .get("/api/users/{userId}/validate", (request, response) ->
+                                json(response, "true".getBytes(StandardCharsets.UTF_8)))
+                        .post("/api/users/register", (request, response) -> request.receive().then()
+                                .then(json(response, "{}".getBytes(StandardCharsets.UTF_8))))
+                        .route(request -> true, (request, response) -> request.receive().then()
+                                .then(json(response, ECHO_BODY))))
+                .bindNow();
+        return new StubDownstreams(signingKey, server);
+    }
+
+    private static Mono<Void> json(HttpServerResponse response, byte[] body) {
+        return response
+                .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                .header(HttpHeaderNames.CONTENT_LENGTH, Integer.toString(body.length))
+                .sendByteArray(Mono.just(body))
+                .then();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    public String jwkSetUri() {
+        return baseUrl() + JWKS_PATH;
+    }
+
+    /** A Keycloak-shaped access token for the given subject, valid for an hour. */
+    public String accessToken(String subject) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issuer(baseUrl() + "/realms/fitness-app")
+                .claim("email", subject + "@bench.fitness.app")
+                .claim("given_name", "Bench")
+                .claim("family_name", "User")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(3600)))
+                .build();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
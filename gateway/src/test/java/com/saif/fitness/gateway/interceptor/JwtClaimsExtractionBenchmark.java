@@ -0,0 +1,107 @@
+package com.saif.fitness.gateway.interceptor;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.saif.fitness.gateway.user.UserRequestDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.util.context.Context;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old claims path (re-parse the raw Authorization header with
+ * {@link SignedJWT#parse}) with reading the already-verified {@link Jwt}
+ * principal from the reactive security context.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtClaimsExtractionBenchmark {
+
+    private String authorizationHeader;
+    private Context securityContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("bench").generate();
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(UUID.randomUUID().toString())
+                .issuer("http://localhost:8181/realms/fitness-app")
+                .claim("email", "bench@fitness.app")
+                .claim("given_name", "Bench")
+                .claim("family_name", "Mark")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)))
+                .build();
+
+        SignedJWT signedJWT = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        String token = signedJWT.serialize();
+        authorizationHeader = "Bearer " + token;
+
+        Jwt jwt = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .header("kid", rsaKey.getKeyID())
+                .claims(c -> c.putAll(claims.getClaims()))
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .build();
+        securityContext = ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    /** What KeycloakUserSyncFilter used to do on every request. */
+    @Benchmark
+    public UserRequestDto reparseAuthorizationHeader() throws Exception {
+        String tokenWithoutBearer = authorizationHeader.replace("Bearer", "").trim();
+        JWTClaimsSet claims = SignedJWT.parse(tokenWithoutBearer).getJWTClaimsSet();
+
+        UserRequestDto userRequestDto = new UserRequestDto();
+        userRequestDto.setEmail(claims.getStringClaim("email"));
+        userRequestDto.setKeycloakId(claims.getStringClaim("sub"));
+        userRequestDto.setFirstName(claims.getStringClaim("given_name"));
+        userRequestDto.setLastName(claims.getStringClaim("family_name"));
+        return userRequestDto;
+    }
+
+    @Benchmark
+    public UserRequestDto securityContextPrincipal() {
+        return JwtUserClaims.current()
+                .contextWrite(securityContext)
+                .block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtClaimsExtractionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
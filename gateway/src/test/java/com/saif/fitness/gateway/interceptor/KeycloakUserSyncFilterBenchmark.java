@@ -0,0 +1,133 @@
+package com.saif.fitness.gateway.interceptor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.saif.fitness.gateway.user.UserService;
+import com.saif.fitness.gateway.user.UserSyncCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link KeycloakUserSyncFilter} once users are synced:
+ * claims from the security context, a {@link UserSyncCache} hit and the
+ * X-User-ID request mutation. USER-SERVICE is an in-memory stub, only reached
+ * while the cache is being filled in setup.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeycloakUserSyncFilterBenchmark {
+
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"1", "100000"})
+    private int distinctUsers;
+
+    private KeycloakUserSyncFilter filter;
+    private Context[] securityContexts;
+    private MockServerWebExchange exchange;
+    private MockServerWebExchange exchangeWithUserId;
+    private MockServerWebExchange skippedExchange;
+
+    @Setup
+    public void setUp() {
+        // no logback config on the test classpath: the default DEBUG level would log every skip
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        WebClient userServiceStub = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("true")
+                        .build()))
+                .build();
+        UserSyncCache userSyncCache = new UserSyncCache(distinctUsers, Duration.ofHours(1), new SimpleMeterRegistry());
+        filter = new KeycloakUserSyncFilter(new UserService(userServiceStub), userSyncCache);
+
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/activities").build());
+        skippedExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/login").build());
+
+        securityContexts = new Context[distinctUsers];
+        for (int i = 0; i < distinctUsers; i++) {
+            securityContexts[i] = securityContext(UUID.randomUUID().toString());
+            filter.filter(exchange, CHAIN).contextWrite(securityContexts[i]).block();
+        }
+        exchangeWithUserId = MockServerWebExchange.from(MockServerHttpRequest.get("/api/activities")
+                .header("X-User-ID", UUID.randomUUID().toString())
+                .build());
+    }
+
+    private static Context securityContext(String subject) {
+        Instant now = Instant.now();
+        Jwt jwt = Jwt.withTokenValue("token-" + subject)
+                .header("alg", "RS256")
+                .subject(subject)
+                .claim("email", subject + "@fitness.app")
+                .claim("given_name", "Bench")
+                .claim("family_name", "Mark")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .build();
+        return ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @Benchmark
+    public Void syncedUser() {
+        Context context = securityContexts[ThreadLocalRandom.current().nextInt(securityContexts.length)];
+        return filter.filter(exchange, CHAIN).contextWrite(context).block();
+    }
+
+    /** Client sent its own X-User-ID: overwritten with the sub, same cache hit. */
+    @Benchmark
+    public Void userIdHeader() {
+        return filter.filter(exchangeWithUserId, CHAIN).contextWrite(securityContexts[0]).block();
+    }
+
+    /** /api/auth/** bypass: the floor, path check only. */
+    @Benchmark
+    public Void skippedPath() {
+        return filter.filter(skippedExchange, CHAIN).block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(KeycloakUserSyncFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
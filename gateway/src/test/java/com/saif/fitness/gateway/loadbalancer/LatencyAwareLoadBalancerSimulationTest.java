@@ -0,0 +1,173 @@
+package com.saif.fitness.gateway.loadbalancer;
+
+import com.saif.fitness.gateway.loadbalancer.InstanceLatencyTracker.InFlightRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stubbed-instance simulation: two warm instances and one cold/slow one, as
+ * seen on the free tier right after a redeploy. Latencies are drawn from a
+ * seeded distribution per instance; nothing is actually sent over the network.
+ */
+class LatencyAwareLoadBalancerSimulationTest {
+
+    private static final String SERVICE_ID = "ACTIVITY-SERVICE";
+    private static final int REQUESTS = 5_000;
+
+    private final ServiceInstance warmA = instance("warm-a");
+    private final ServiceInstance warmB = instance("warm-b");
+    private final ServiceInstance cold = instance("cold");
+
+    private final Map<String, Double> meanLatencyMillis = Map.of(
+            "warm-a", 20.0,
+            "warm-b", 25.0,
+            "cold", 400.0);
+
+    @Test
+    void latencyAwareCutsTailLatencyComparedToRoundRobin() {
+        InstanceLatencyTracker roundRobinTracker = newTracker();
+        InstanceLatencyTracker tracker = newTracker();
+
+        long[] roundRobin = simulate(new RoundRobinLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, warmA, warmB, cold), SERVICE_ID), roundRobinTracker);
+        long[] latencyAware = simulate(new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, warmA, warmB, cold), SERVICE_ID, tracker),
+                tracker);
+
+        assertThat(percentile(latencyAware, 0.99)).isLessThan(percentile(roundRobin, 0.99) / 4);
+    }
+
+    @Test
+    void instanceWithMoreRequestsInFlightIsAvoided() {
+        InstanceLatencyTracker tracker = newTracker();
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, warmA, warmB), SERVICE_ID, tracker);
+        long latency = Duration.ofMillis(20).toNanos();
+        tracker.requestStarted(warmA);
+        tracker.requestCompleted(warmA, latency, false);
+        tracker.requestStarted(warmB);
+        tracker.requestCompleted(warmB, latency, false);
+
+        // same latency, warm-a holding 5 slow requests: new ones queue up on warm-b until it is as busy
+        for (int i = 0; i < 5; i++) {
+            tracker.requestStarted(warmA);
+        }
+        for (int i = 0; i < 5; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            assertThat(chosen.getInstanceId()).isEqualTo("warm-b");
+            tracker.requestStarted(chosen);
+        }
+
+        // warm-a drains while warm-b's 5 are still running: the next ones go back to warm-a
+        for (int i = 0; i < 5; i++) {
+            tracker.requestCompleted(warmA, latency, false);
+        }
+        for (int i = 0; i < 5; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            assertThat(chosen.getInstanceId()).isEqualTo("warm-a");
+            tracker.requestStarted(chosen);
+        }
+    }
+
+    @Test
+    void failingInstanceCoolsDown() {
+        InstanceLatencyTracker tracker = newTracker();
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, warmA, warmB), SERVICE_ID, tracker);
+
+        tracker.requestStarted(warmA);
+        tracker.requestCompleted(warmA, Duration.ofMillis(5).toNanos(), true);
+        tracker.requestStarted(warmB);
+        tracker.requestCompleted(warmB, Duration.ofMillis(50).toNanos(), false);
+
+        for (int i = 0; i < 100; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            assertThat(chosen.getInstanceId()).isEqualTo("warm-b");
+        }
+    }
+
+    @Test
+    void cancelledRequestsGiveBackTheirInFlightCount() {
+        InstanceLatencyTracker tracker = newTracker();
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, warmA, cold), SERVICE_ID, tracker);
+        tracker.requestStarted(warmA);
+        tracker.requestCompleted(warmA, Duration.ofMillis(20).toNanos(), false);
+
+        // 20 requests to the unprobed instance, all cancelled (time limiter, client gone):
+        // the lifecycle never calls onComplete, only the release on the cancel signal runs
+        for (int i = 0; i < 20; i++) {
+            InFlightRequest inFlight = startThroughLifecycle(tracker, cold);
+            inFlight.release();
+            inFlight.release();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose(new DefaultRequest<>()).block().getServer().getInstanceId())
+                    .isEqualTo("cold");
+        }
+
+        // released exactly once: one request really in flight makes it busy again
+        startThroughLifecycle(tracker, cold);
+        assertThat(loadBalancer.choose(new DefaultRequest<>()).block().getServer().getInstanceId())
+                .isEqualTo("warm-a");
+    }
+
+    private static InFlightRequest startThroughLifecycle(InstanceLatencyTracker tracker, ServiceInstance instance) {
+        InFlightRequest inFlight = new InFlightRequest();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(InstanceLatencyTracker.IN_FLIGHT_ATTR, inFlight);
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://" + SERVICE_ID + "/api/activities"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), attributes);
+        tracker.onStartRequest(new DefaultRequest<>(new RequestDataContext(requestData)), new DefaultResponse(instance));
+        return inFlight;
+    }
+
+    private long[] simulate(ReactorServiceInstanceLoadBalancer loadBalancer, InstanceLatencyTracker tracker) {
+        Random random = new Random(42);
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            double mean = meanLatencyMillis.get(chosen.getInstanceId());
+            long latencyMillis = (long) (mean * (0.5 - Math.log(1 - random.nextDouble()) * 0.5));
+
+            tracker.requestStarted(chosen);
+            tracker.requestCompleted(chosen, Duration.ofMillis(latencyMillis).toNanos(), false);
+            latencies[i] = latencyMillis;
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] values, double percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private static InstanceLatencyTracker newTracker() {
+        return new InstanceLatencyTracker(Duration.ofSeconds(10), Duration.ofSeconds(5));
+    }
+
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, SERVICE_ID, id + ".onrender.com", 443, true);
+    }
+}
@@ -0,0 +1,73 @@
+package com.saif.fitness.gateway.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TokenBucketRateLimiter#tryAcquire} from 8 threads over
+ * a key space of up to two million distinct users (JWT subs), plus a
+ * single hot key to show CAS contention on one bucket.
+ *
+ * Not a unit test: run main() from the IDE (surefire ignores it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TokenBucketRateLimiterBenchmark {
+
+    @Param({"10000", "2000000"})
+    private int distinctKeys;
+
+    private String[] keys;
+    private TokenBucketRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        keys = new String[distinctKeys];
+        for (int i = 0; i < distinctKeys; i++) {
+            keys[i] = UUID.randomUUID().toString();
+        }
+        limiter = new TokenBucketRateLimiter(10, 20);
+        long now = System.nanoTime();
+        for (String key : keys) {
+            limiter.tryAcquire(key, now);
+        }
+    }
+
+    @Benchmark
+    public long distinctUsers() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        return limiter.tryAcquire(key, System.nanoTime());
+    }
+
+    @Benchmark
+    public long singleHotUser() {
+        return limiter.tryAcquire(keys[0], System.nanoTime());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TokenBucketRateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}